@@ -0,0 +1,176 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates many tag clouds in one run from a manifest file. Each non-blank
+ * manifest line that does not start with {@code #} holds an input file, an
+ * output file and the number of words, separated by whitespace. Entries are
+ * processed on a bounded pool of {@code --jobs} threads; every thread keeps one
+ * {@code WordCounter} and one {@code CloudRenderer} and reuses their storage
+ * from file to file, and all threads share the tokenizer's lookup table.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class BatchRunner {
+
+    /**
+     * One line of the manifest.
+     */
+    private static final class Entry {
+
+        /**
+         * The input file name.
+         */
+        private final String input;
+
+        /**
+         * The output file name.
+         */
+        private final String output;
+
+        /**
+         * The number of words in the cloud.
+         */
+        private final int wordNum;
+
+        /**
+         * Creates a manifest entry.
+         *
+         * @param input
+         *            the input file name
+         * @param output
+         *            the output file name
+         * @param wordNum
+         *            the number of words in the cloud
+         */
+        Entry(String input, String output, int wordNum) {
+            this.input = input;
+            this.output = output;
+            this.wordNum = wordNum;
+        }
+    }
+
+    /**
+     * Counter reused by each worker thread.
+     */
+    private static final ThreadLocal<WordCounter> COUNTERS = ThreadLocal
+            .withInitial(WordCounter::new);
+
+    /**
+     * Renderer reused by each worker thread.
+     */
+    private static final ThreadLocal<CloudRenderer> RENDERERS = ThreadLocal
+            .withInitial(CloudRenderer::new);
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private BatchRunner() {
+    }
+
+    /**
+     * Reads the entries of {@code manifest}.
+     *
+     * @param manifest
+     *            the manifest file name
+     * @return the entries, in file order
+     * @throws IOException
+     *             if reading fails or a line is malformed
+     */
+    private static List<Entry> readManifest(String manifest)
+            throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(
+                new FileReader(manifest))) {
+            int lineNumber = 0;
+            String line = in.readLine();
+            while (line != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.length() > 0 && !trimmed.startsWith("#")) {
+                    String[] fields = trimmed.split("\\s+");
+                    int wordNum = -1;
+                    if (fields.length == 3) {
+                        try {
+                            wordNum = Integer.parseInt(fields[2]);
+                        } catch (NumberFormatException e) {
+                            wordNum = -1;
+                        }
+                    }
+                    if (wordNum < 0) {
+                        throw new IOException(manifest + ":" + lineNumber
+                                + ": expected \"input output N\"");
+                    }
+                    entries.add(new Entry(fields[0], fields[1], wordNum));
+                }
+                line = in.readLine();
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Generates the cloud of every entry of the manifest named in
+     * {@code options}, reporting failures on {@code System.err}.
+     *
+     * @param options
+     *            the command line options
+     * @return the number of entries that failed
+     */
+    public static int run(TagCloudOptions options) {
+        assert options != null : "Violation of: options is not null";
+        assert options.manifest() != null : "Violation of: manifest given";
+
+        List<Entry> entries;
+        try {
+            entries = readManifest(options.manifest());
+        } catch (IOException e) {
+            System.err.println("Error reading manifest: " + e.getMessage());
+            return 1;
+        }
+
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(options.jobs(),
+                Metrics.threadFactory());
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Entry entry : entries) {
+                results.add(pool.submit(() -> {
+                    try {
+                        TagCloud10.generate(entry.input, entry.output,
+                                entry.wordNum, options, COUNTERS.get(),
+                                RENDERERS.get());
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                        Metrics.global().error();
+                        System.err.println("Error generating " + entry.output
+                                + " from " + entry.input + ": "
+                                + e.getMessage());
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.incrementAndGet();
+        } catch (ExecutionException e) {
+            failures.incrementAndGet();
+            System.err.println("Error in batch: " + e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return failures.get();
+    }
+
+}
@@ -0,0 +1,119 @@
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Lowercases words as {@code String.toLowerCase(Locale)} would, without
+ * creating a {@code String} in the common case. A word of ASCII characters
+ * only is lowercased in place with one comparison per character; any other
+ * word is lowercased as a whole with {@code String.toLowerCase}, since the
+ * lowercase of a non-ASCII character may depend on its neighbours (a final
+ * sigma) or may have a different length (a dotted capital I).
+ *
+ * <p>
+ * Case folding depends on the locale: in Turkish, for instance, the
+ * lowercase of {@code I} is a dotless i (U+0131). The ASCII fast path is only
+ * used for locales that lowercase ASCII the usual way; {@code Locale.ROOT}
+ * gives the same result on every machine.
+ * </p>
+ *
+ * <p>
+ * A {@code CaseFolder} keeps a scratch buffer for words whose length changes,
+ * so it must not be shared between threads.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class CaseFolder {
+
+    /**
+     * The uppercase ASCII letters.
+     */
+    private static final String ASCII_UPPER = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    /**
+     * Whether each locale seen so far lowercases ASCII letters to ASCII
+     * letters, so creating a folder does not lowercase anything.
+     */
+    private static final ConcurrentMap<Locale, Boolean> ASCII_FAST_PATHS =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The locale whose case rules are used.
+     */
+    private final Locale locale;
+
+    /**
+     * Whether {@code locale} lowercases ASCII letters to ASCII letters.
+     */
+    private final boolean asciiFastPath;
+
+    /**
+     * Holds a lowercased word whose length differs from the original.
+     */
+    private char[] scratch;
+
+    /**
+     * Creates a folder using the case rules of {@code locale}.
+     *
+     * @param locale
+     *            the locale
+     */
+    public CaseFolder(Locale locale) {
+        assert locale != null : "Violation of: locale is not null";
+
+        this.locale = locale;
+        this.asciiFastPath = ASCII_FAST_PATHS.computeIfAbsent(locale,
+                l -> ASCII_UPPER.toLowerCase(l)
+                        .equals(ASCII_UPPER.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Lowercases the word {@code chars[start, end)} and reports it to
+     * {@code sink}. The word is lowercased in place unless its length
+     * changes, in which case the sink receives a range of another array.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param sink
+     *            receives the lowercased word
+     * @updates chars
+     * @requires 0 <= start <= end <= |chars|
+     */
+    public void fold(char[] chars, int start, int end,
+            WordTokenizer.WordSink sink) {
+        int i = start;
+        if (this.asciiFastPath) {
+            while (i < end && chars[i] < 0x80) {
+                char ch = chars[i];
+                if ('A' <= ch && ch <= 'Z') {
+                    chars[i] = (char) (ch + ('a' - 'A'));
+                }
+                i++;
+            }
+        }
+        if (i == end) {
+            sink.word(chars, start, end);
+        } else {
+            String folded = new String(chars, start, end - start)
+                    .toLowerCase(this.locale);
+            int length = folded.length();
+            if (length == end - start) {
+                folded.getChars(0, length, chars, start);
+                sink.word(chars, start, end);
+            } else {
+                if (this.scratch == null || this.scratch.length < length) {
+                    this.scratch = new char[Math.max(length, 64)];
+                }
+                folded.getChars(0, length, this.scratch, 0);
+                sink.word(this.scratch, 0, length);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,451 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Renders a tag cloud page as UTF-8 into a reusable byte buffer. The constant
+ * parts of the page, including the {@code class="fNN"} attribute of every
+ * font size, are encoded once; words are HTML-escaped and encoded straight
+ * into the buffer and counts are written as digits, so rendering a tag creates
+ * no temporary objects. The finished page is written with a single bulk
+ * write. The output matches that of {@code indexFile} and {@code outputTag}.
+ *
+ * <p>
+ * A {@code CloudRenderer} may be reused for many pages but must not be shared
+ * between threads.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class CloudRenderer {
+
+    /**
+     * Smallest font size with a pre-encoded class.
+     */
+    public static final int MIN_FONT = 11;
+
+    /**
+     * Largest font size with a pre-encoded class.
+     */
+    public static final int MAX_FONT = 48;
+
+    /**
+     * Line separator used by {@code PrintWriter.println}.
+     */
+    private static final String NL = System.lineSeparator();
+
+    /**
+     * Page start, up to the input file name in the title.
+     */
+    private static final byte[] TITLE_START = bytes(
+            "<html>" + NL + "<head>" + NL + "<title> Words Counted in ");
+
+    /**
+     * Rest of the page head, up to the input file name in the heading.
+     */
+    private static final byte[] HEADING_START = bytes(" </title>" + NL
+            + "<link href=\"http://web.cse.ohio-state.edu/software/2231/"
+            + "web-sw2/assignments/projects/tag-cloud-generator/data/"
+            + "tagcloud.css\" rel=\"stylesheet\" type=\"text/css\">" + NL
+            + "<link href=\"tagcloud.css\" rel=\"stylesheet\" "
+            + "type=\"text/css\">" + NL + "</head>" + NL + "<body>" + NL
+            + "    <h2> Words Counted in ");
+
+    /**
+     * Page part after the input file name, up to the first tag.
+     */
+    private static final byte[] CLOUD_START = bytes(" </h2>" + NL
+            + "    <hr/>" + NL + "    <div class=\"cdiv\">" + NL
+            + "    <p class=\"cbox\">" + NL);
+
+    /**
+     * Start of each tag, up to its class.
+     */
+    private static final byte[] TAG_START = bytes(
+            " <span style=\"cursor:default\" ");
+
+    /**
+     * The class attribute of each font size from {@code MIN_FONT} to
+     * {@code MAX_FONT}.
+     */
+    private static final byte[][] FONT_CLASSES = new byte[MAX_FONT
+            - MIN_FONT + 1][];
+
+    static {
+        for (int font = MIN_FONT; font <= MAX_FONT; font++) {
+            FONT_CLASSES[font - MIN_FONT] = bytes("class=\"f" + font + "\"");
+        }
+    }
+
+    /**
+     * Start of the class attribute of a font size without a pre-encoded
+     * class.
+     */
+    private static final byte[] CLASS_START = bytes("class=\"f");
+
+    /**
+     * Closing quote of an attribute.
+     */
+    private static final byte[] QUOTE = bytes("\"");
+
+    /**
+     * Part of a tag between its class and its count.
+     */
+    private static final byte[] TITLE = bytes(" title=\"count: ");
+
+    /**
+     * Part of a tag between its count and its word.
+     */
+    private static final byte[] WORD_START = bytes("\">");
+
+    /**
+     * End of each tag.
+     */
+    private static final byte[] TAG_END = bytes("</span>" + NL);
+
+    /**
+     * Page end, after the last tag.
+     */
+    private static final byte[] CLOUD_END = bytes("    </p>" + NL
+            + "    </div>" + NL + "</body>" + NL + "</html>" + NL);
+
+    /**
+     * Escaped form of {@code &}.
+     */
+    private static final byte[] AMP = bytes("&amp;");
+
+    /**
+     * Escaped form of {@code <}.
+     */
+    private static final byte[] LT = bytes("&lt;");
+
+    /**
+     * Escaped form of {@code >}.
+     */
+    private static final byte[] GT = bytes("&gt;");
+
+    /**
+     * Escaped form of {@code "}.
+     */
+    private static final byte[] QUOT = bytes("&quot;");
+
+    /**
+     * Escaped form of {@code '}.
+     */
+    private static final byte[] APOS = bytes("&#39;");
+
+    /**
+     * The page being rendered.
+     */
+    private byte[] buffer = new byte[1 << 16];
+
+    /**
+     * Number of bytes used in {@code buffer}.
+     */
+    private int length;
+
+    /**
+     * Returns {@code text} encoded as UTF-8.
+     *
+     * @param text
+     *            the text
+     * @return the encoded text
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns {@code text} with the HTML special characters escaped.
+     *
+     * @param text
+     *            the text
+     * @return the escaped text
+     */
+    public static String escape(String text) {
+        assert text != null : "Violation of: text is not null";
+
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            String replacement = null;
+            switch (ch) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                case '\'':
+                    replacement = "&#39;";
+                    break;
+                default:
+                    break;
+            }
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(text.length() + 16);
+                escaped.append(text, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(ch);
+                }
+            }
+        }
+        String result = text;
+        if (escaped != null) {
+            result = escaped.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Makes room for {@code extra} more bytes.
+     *
+     * @param extra
+     *            the number of bytes about to be appended
+     */
+    private void ensure(int extra) {
+        if (this.length + extra > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer,
+                    Math.max(this.buffer.length * 2, this.length + extra));
+        }
+    }
+
+    /**
+     * Appends pre-encoded bytes.
+     *
+     * @param fragment
+     *            the bytes to append
+     */
+    private void append(byte[] fragment) {
+        this.ensure(fragment.length);
+        System.arraycopy(fragment, 0, this.buffer, this.length,
+                fragment.length);
+        this.length += fragment.length;
+    }
+
+    /**
+     * Appends the decimal digits of {@code n}.
+     *
+     * @param n
+     *            the number
+     */
+    private void appendInt(int n) {
+        final int maxDigits = 11;
+        this.ensure(maxDigits);
+        long value = n;
+        if (value < 0) {
+            this.buffer[this.length] = '-';
+            this.length++;
+            value = -value;
+        }
+        int end = this.length;
+        long rest = value;
+        do {
+            end++;
+            rest /= 10;
+        } while (rest > 0);
+        int i = end;
+        do {
+            i--;
+            this.buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        this.length = end;
+    }
+
+    /**
+     * Appends {@code text}, HTML-escaped and encoded as UTF-8.
+     *
+     * @param text
+     *            the text
+     */
+    private void appendEscaped(CharSequence text) {
+        final int maxBytesPerChar = 6;
+        int n = text.length();
+        this.ensure(n * maxBytesPerChar);
+        byte[] b = this.buffer;
+        int p = this.length;
+        for (int i = 0; i < n; i++) {
+            char ch = text.charAt(i);
+            if (ch < 0x80) {
+                byte[] escaped = null;
+                switch (ch) {
+                    case '&':
+                        escaped = AMP;
+                        break;
+                    case '<':
+                        escaped = LT;
+                        break;
+                    case '>':
+                        escaped = GT;
+                        break;
+                    case '"':
+                        escaped = QUOT;
+                        break;
+                    case '\'':
+                        escaped = APOS;
+                        break;
+                    default:
+                        b[p] = (byte) ch;
+                        p++;
+                        break;
+                }
+                if (escaped != null) {
+                    System.arraycopy(escaped, 0, b, p, escaped.length);
+                    p += escaped.length;
+                }
+            } else if (ch < 0x800) {
+                b[p] = (byte) (0xC0 | (ch >> 6));
+                b[p + 1] = (byte) (0x80 | (ch & 0x3F));
+                p += 2;
+            } else if (Character.isHighSurrogate(ch) && i + 1 < n
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(ch, text.charAt(i + 1));
+                i++;
+                b[p] = (byte) (0xF0 | (cp >> 18));
+                b[p + 1] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                b[p + 2] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                b[p + 3] = (byte) (0x80 | (cp & 0x3F));
+                p += 4;
+            } else if (Character.isSurrogate(ch)) {
+                //An unpaired surrogate cannot be encoded
+                b[p] = '?';
+                p++;
+            } else {
+                b[p] = (byte) (0xE0 | (ch >> 12));
+                b[p + 1] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+                b[p + 2] = (byte) (0x80 | (ch & 0x3F));
+                p += 3;
+            }
+        }
+        this.length = p;
+    }
+
+    /**
+     * Discards the page rendered so far, keeping the buffer for reuse.
+     *
+     * @clears this
+     */
+    public void reset() {
+        this.length = 0;
+    }
+
+    /**
+     * Appends the opening HTML tags of the page for {@code fileName}.
+     *
+     * @param fileName
+     *            the input file name
+     * @updates this
+     */
+    public void begin(String fileName) {
+        assert fileName != null : "Violation of: fileName is not null";
+
+        this.append(TITLE_START);
+        this.appendEscaped(fileName);
+        this.append(HEADING_START);
+        this.appendEscaped(fileName);
+        this.append(CLOUD_START);
+    }
+
+    /**
+     * Appends the tag of one word.
+     *
+     * @param word
+     *            the word
+     * @param count
+     *            the count of the word
+     * @param font
+     *            the font size of the word
+     * @updates this
+     */
+    public void tag(CharSequence word, int count, int font) {
+        assert word != null : "Violation of: word is not null";
+
+        this.append(TAG_START);
+        if (MIN_FONT <= font && font <= MAX_FONT) {
+            this.append(FONT_CLASSES[font - MIN_FONT]);
+        } else {
+            this.append(CLASS_START);
+            this.appendInt(font);
+            this.append(QUOTE);
+        }
+        this.append(TITLE);
+        this.appendInt(count);
+        this.append(WORD_START);
+        this.appendEscaped(word);
+        this.append(TAG_END);
+    }
+
+    /**
+     * Appends the closing HTML tags of the page.
+     *
+     * @updates this
+     */
+    public void end() {
+        this.append(CLOUD_END);
+    }
+
+    /**
+     * Returns the number of bytes rendered so far.
+     *
+     * @return the rendered length
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Returns a copy of the page rendered so far.
+     *
+     * @return the page, as UTF-8
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.length);
+    }
+
+    /**
+     * Writes the page rendered so far to {@code out} in one call.
+     *
+     * @param out
+     *            the output stream
+     * @throws IOException
+     *             if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        assert out != null : "Violation of: out is not null";
+
+        out.write(this.buffer, 0, this.length);
+    }
+
+    /**
+     * Writes the page rendered so far to {@code channel}.
+     *
+     * @param channel
+     *            the output channel
+     * @throws IOException
+     *             if writing fails
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        assert channel != null : "Violation of: channel is not null";
+
+        ByteBuffer page = ByteBuffer.wrap(this.buffer, 0, this.length);
+        while (page.hasRemaining()) {
+            channel.write(page);
+        }
+    }
+
+}
@@ -0,0 +1,307 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Counts the words of many files into one {@code WordCounter}. The files are
+ * split recursively into ranges on a {@code ForkJoinPool}; each leaf range is
+ * counted into its own counter, and the partial counters are merged pairwise
+ * as the ranges join, so no counter is ever shared between threads and no
+ * lock is taken. The time and size of every file are recorded for a
+ * throughput report.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class CorpusCounter {
+
+    /**
+     * Number of leaf ranges per thread; more ranges balance uneven file
+     * sizes, fewer save merges.
+     */
+    private static final int RANGES_PER_THREAD = 8;
+
+    /**
+     * Counts a range of the files, splitting it while it is large.
+     */
+    private static final class RangeTask extends RecursiveTask<WordCounter> {
+
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The shared state of the count.
+         */
+        private final transient CorpusCounter owner;
+
+        /**
+         * Index of the first file of the range.
+         */
+        private final int low;
+
+        /**
+         * Index one past the last file of the range.
+         */
+        private final int high;
+
+        /**
+         * Creates a task counting files {@code [low, high)}.
+         *
+         * @param owner
+         *            the shared state of the count
+         * @param low
+         *            index of the first file
+         * @param high
+         *            index one past the last file
+         */
+        RangeTask(CorpusCounter owner, int low, int high) {
+            this.owner = owner;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected WordCounter compute() {
+            WordCounter result;
+            if (this.high - this.low <= this.owner.leafSize) {
+                result = new WordCounter();
+                for (int i = this.low; i < this.high; i++) {
+                    this.owner.countFile(i, result);
+                }
+            } else {
+                int middle = (this.low + this.high) >>> 1;
+                RangeTask left = new RangeTask(this.owner, this.low, middle);
+                left.fork();
+                WordCounter right = new RangeTask(this.owner, middle,
+                        this.high).compute();
+                result = left.join();
+                //Merges the smaller counter into the larger one
+                if (result.size() < right.size()) {
+                    WordCounter t = result;
+                    result = right;
+                    right = t;
+                }
+                result.addAll(right);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The files to count.
+     */
+    private final List<Path> files;
+
+    /**
+     * Tokenizer shared by every worker.
+     */
+    private final WordTokenizer tokenizer;
+
+    /**
+     * Whether files are memory-mapped.
+     */
+    private final boolean mmap;
+
+    /**
+     * Largest number of files counted by one leaf task.
+     */
+    private final int leafSize;
+
+    /**
+     * Size of each file, in bytes; each entry is written by one task only.
+     */
+    private final long[] sizes;
+
+    /**
+     * Time spent counting each file, in nanoseconds; each entry is written by
+     * one task only.
+     */
+    private final long[] times;
+
+    /**
+     * Creates the shared state for one corpus count.
+     *
+     * @param files
+     *            the files to count
+     * @param tokenizer
+     *            the tokenizer to split the files with
+     * @param threads
+     *            the number of worker threads
+     * @param mmap
+     *            whether files are memory-mapped
+     */
+    private CorpusCounter(List<Path> files, WordTokenizer tokenizer,
+            int threads, boolean mmap) {
+        this.files = files;
+        this.tokenizer = tokenizer;
+        this.mmap = mmap;
+        this.leafSize = Math.max(1,
+                files.size() / (threads * RANGES_PER_THREAD));
+        this.sizes = new long[files.size()];
+        this.times = new long[files.size()];
+    }
+
+    /**
+     * Counts file {@code i} into {@code counter} and records its size and
+     * time.
+     *
+     * @param i
+     *            index of the file
+     * @param counter
+     *            the counter to add the words to
+     * @throws UncheckedIOException
+     *             if reading the file fails
+     */
+    private void countFile(int i, WordCounter counter) {
+        Path file = this.files.get(i);
+        long start = System.nanoTime();
+        try {
+            this.sizes[i] = Files.size(file);
+            Metrics.global().file(this.sizes[i]);
+            TagCloud10.CounterSink sink = new TagCloud10.CounterSink(counter);
+            if (this.mmap && !StreamTextReader.isStream(file.toString())) {
+                new MappedTextReader(this.tokenizer).tokenize(file, sink);
+            } else {
+                try (Reader in = StreamTextReader.open(file.toString())) {
+                    new StreamTextReader(this.tokenizer).tokenize(in, sink);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(file + ": " + e.getMessage(), e);
+        }
+        this.times[i] = System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the regular files named by {@code spec}, in name order: every
+     * file under {@code spec} if it is a directory, otherwise every file
+     * matching it as a glob such as {@code logs/**.txt}.
+     *
+     * @param spec
+     *            a directory or a glob
+     * @return the files
+     * @throws IOException
+     *             if listing the files fails
+     */
+    public static List<Path> files(String spec) throws IOException {
+        assert spec != null : "Violation of: spec is not null";
+
+        int firstGlob = 0;
+        while (firstGlob < spec.length()
+                && "*?[{".indexOf(spec.charAt(firstGlob)) < 0) {
+            firstGlob++;
+        }
+        Path root = Paths.get(spec.substring(0, firstGlob));
+        PathMatcher matcher = null;
+        if (firstGlob < spec.length() || !Files.isDirectory(root)) {
+            //Walks from the longest directory prefix free of glob syntax
+            int cut = Math.max(spec.lastIndexOf('/', firstGlob),
+                    spec.lastIndexOf(File.separatorChar, firstGlob));
+            root = Paths.get(spec.substring(0, cut + 1));
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + spec);
+        }
+
+        List<Path> result = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) walk::iterator) {
+                if (Files.isRegularFile(path)
+                        && (matcher == null || matcher.matches(path))) {
+                    result.add(path);
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Counts the words of every file in {@code files}, lowercased, using
+     * {@code threads} worker threads, and prints the size, time and
+     * throughput of each file and of the whole corpus to {@code report}.
+     *
+     * @param files
+     *            the files to count
+     * @param tokenizer
+     *            the tokenizer to split the files with
+     * @param threads
+     *            the number of worker threads
+     * @param mmap
+     *            whether files are memory-mapped
+     * @param report
+     *            receives the throughput report, or null for none
+     * @return the word counts of all the files
+     * @throws IOException
+     *             if reading any file fails
+     * @requires 0 < threads
+     */
+    public static WordCounter count(List<Path> files, WordTokenizer tokenizer,
+            int threads, boolean mmap, PrintStream report) throws IOException {
+        assert files != null : "Violation of: files is not null";
+        assert tokenizer != null : "Violation of: tokenizer is not null";
+        assert 0 < threads : "Violation of: 0 < threads";
+
+        WordCounter result = new WordCounter();
+        if (files.isEmpty()) {
+            return result;
+        }
+        CorpusCounter state = new CorpusCounter(files, tokenizer, threads,
+                mmap);
+        ForkJoinPool pool = Metrics.forkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            result = pool.invoke(new RangeTask(state, 0, files.size()));
+        } catch (UncheckedIOException e) {
+            throw new IOException(e.getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (report != null) {
+            long total = 0;
+            for (int i = 0; i < files.size(); i++) {
+                total += state.sizes[i];
+                report.println(line(files.get(i).toString(), state.sizes[i],
+                        state.times[i]));
+            }
+            report.println(line("total (" + files.size() + " files, "
+                    + result.size() + " words)", total, elapsed));
+        }
+        return result;
+    }
+
+    /**
+     * Returns one line of the throughput report.
+     *
+     * @param name
+     *            what was counted
+     * @param bytes
+     *            the number of bytes counted
+     * @param nanos
+     *            the time taken, in nanoseconds
+     * @return the report line
+     */
+    private static String line(String name, long bytes, long nanos) {
+        final double nanosPerSecond = 1e9;
+        final double bytesPerMb = 1e6;
+        double seconds = Math.max(nanos, 1) / nanosPerSecond;
+        return String.format("%-40s %12d bytes %10.3f ms %9.1f MB/s", name,
+                bytes, seconds * 1e3, bytes / bytesPerMb / seconds);
+    }
+
+}
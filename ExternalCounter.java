@@ -0,0 +1,575 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Counts words exactly in bounded memory, for vocabularies larger than the
+ * heap. Words are counted in an ordinary {@code WordCounter} until adding one
+ * would make its storage outgrow the memory budget; its counts are then
+ * appended to a run file on disk and counting goes on in the emptied counter.
+ *
+ * <p>
+ * The run is counted again at the end. If its words do not fit the budget,
+ * counting stops where they overflow and the run is split by hash into
+ * partitions, twice as many as the run's size divided by the bytes read
+ * before then, each counted the same way and split again if it still
+ * overflows. Every occurrence of a word ends up in the same partition, so
+ * only the most frequent words of each partition are kept; the most frequent
+ * words of the input are among them, with exact counts. Partitions are
+ * counted in parallel, each within an equal share of the budget, so the
+ * counts in memory never outgrow it.
+ * </p>
+ *
+ * <p>
+ * Nothing is written to disk if the words fit the budget.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class ExternalCounter
+        implements WordTokenizer.WordSink, Closeable {
+
+    /**
+     * Smallest share of the budget a partition is counted in, so that a
+     * counter always holds more than a few words.
+     */
+    private static final long MIN_SHARE = 1 << 16;
+
+    /**
+     * Largest number of partitions a run is split into at once, which bounds
+     * the open files and their buffers.
+     */
+    private static final int MAX_FAN_OUT = 64;
+
+    /**
+     * Depth past which a partition is counted whole instead of split again,
+     * a guard against words that no hash separates.
+     */
+    private static final int MAX_LEVEL = 8;
+
+    /**
+     * Size of the buffer of each run file.
+     */
+    private static final int BUFFER_SIZE = 1 << 15;
+
+    /**
+     * Bytes of a record besides the characters of its word: the count and
+     * the length.
+     */
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+
+    /**
+     * A run file of records, each a count, a length and the characters of a
+     * word; a word may have several records.
+     */
+    private static final class Run {
+
+        /**
+         * The file.
+         */
+        private final Path path;
+
+        /**
+         * Number of times the words of the run were split before.
+         */
+        private final int level;
+
+        /**
+         * The stream writing the file, or null once it is closed.
+         */
+        private DataOutputStream out;
+
+        /**
+         * Number of records written.
+         */
+        private long records;
+
+        /**
+         * Number of bytes written.
+         */
+        private long bytes;
+
+        /**
+         * Creates an empty run file in {@code directory}.
+         *
+         * @param directory
+         *            the directory of the run files
+         * @param level
+         *            number of times its words were split before
+         * @throws IOException
+         *             if the file cannot be created
+         */
+        Run(Path directory, int level) throws IOException {
+            this.path = Files.createTempFile(directory, "run", "");
+            this.level = level;
+            this.out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(this.path), BUFFER_SIZE));
+        }
+
+        /**
+         * Appends a record.
+         *
+         * @param count
+         *            the count of the word
+         * @param word
+         *            holds the characters of the word
+         * @param length
+         *            the length of the word
+         * @throws IOException
+         *             if writing fails
+         */
+        void write(int count, char[] word, int length) throws IOException {
+            this.out.writeInt(count);
+            this.out.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                this.out.writeChar(word[i]);
+            }
+            this.records++;
+            this.bytes += RECORD_HEADER + (long) Character.BYTES * length;
+        }
+
+        /**
+         * Appends a record for every word of {@code counter}.
+         *
+         * @param counter
+         *            the counted words
+         * @throws IOException
+         *             if writing fails
+         */
+        void writeAll(WordCounter counter) throws IOException {
+            char[] word = new char[64];
+            for (int id = 0; id < counter.size(); id++) {
+                int length = counter.wordLength(id);
+                if (length > word.length) {
+                    word = new char[Math.max(length, 2 * word.length)];
+                }
+                counter.getWordChars(id, word, 0);
+                this.write(counter.count(id), word, length);
+            }
+        }
+
+        /**
+         * Finishes writing the file.
+         *
+         * @throws IOException
+         *             if writing fails
+         */
+        void close() throws IOException {
+            if (this.out != null) {
+                this.out.close();
+                this.out = null;
+            }
+        }
+
+        /**
+         * Opens the file for reading.
+         *
+         * @return the stream reading the records
+         * @throws IOException
+         *             if the file cannot be opened
+         */
+        DataInputStream open() throws IOException {
+            return new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(this.path), BUFFER_SIZE));
+        }
+    }
+
+    /**
+     * Largest storage of {@code counter} before it is spilled, in bytes.
+     */
+    private final long budget;
+
+    /**
+     * Largest storage of the counter of each partition, in bytes; the budget
+     * divided among the partitions counted at once.
+     */
+    private long share;
+
+    /**
+     * Directory the run files are created in.
+     */
+    private final Path spillDirectory;
+
+    /**
+     * Directory holding the run files, or null until the first spill.
+     */
+    private Path runDirectory;
+
+    /**
+     * The run the counts are spilled to, or null until the first spill.
+     */
+    private Run spilled;
+
+    /**
+     * The words counted since the last spill.
+     */
+    private WordCounter counter = new WordCounter();
+
+    /**
+     * Number of times the counts were spilled.
+     */
+    private int spills;
+
+    /**
+     * Number of words counted.
+     */
+    private long total;
+
+    /**
+     * Creates an empty counter keeping at most {@code budget} bytes of
+     * counts in memory and spilling the rest to a new directory under
+     * {@code spillDirectory}.
+     *
+     * @param budget
+     *            the memory budget, in bytes
+     * @param spillDirectory
+     *            where the run files are created
+     * @requires 0 < budget
+     */
+    public ExternalCounter(long budget, Path spillDirectory) {
+        assert 0 < budget : "Violation of: 0 < budget";
+        assert spillDirectory != null : "Violation of: spillDirectory "
+                + "is not null";
+
+        this.budget = budget;
+        this.share = budget;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Reports whether adding the word {@code chars[start, end)} to
+     * {@code words} would make its storage, while it grows, exceed
+     * {@code limit}. A counter of no words never overflows.
+     *
+     * @param words
+     *            the counted words
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param limit
+     *            the largest storage allowed, in bytes
+     * @return true iff the word is new and its storage would outgrow
+     *         {@code limit}
+     */
+    private static boolean overflows(WordCounter words, char[] chars,
+            int start, int end, long limit) {
+        long growth = words.growthBytes(end - start);
+        return growth > 0 && words.size() > 0
+                && words.memoryBytes() + growth > limit
+                && words.indexOf(chars, start, end) < 0;
+    }
+
+    /**
+     * Returns the partition, out of {@code parts}, of the word
+     * {@code chars[0, length)} when split for the {@code level + 1}th time.
+     * Each level hashes with its own seed, so the words of one partition are
+     * spread over the partitions of the next.
+     *
+     * @param chars
+     *            the characters
+     * @param length
+     *            the length of the word
+     * @param level
+     *            the number of times the word was split before
+     * @param parts
+     *            the number of partitions
+     * @return the partition
+     */
+    private static int partition(char[] chars, int length, int level,
+            int parts) {
+        long h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + chars[i];
+        }
+        //Mixes the seeded hash so every bit depends on every character
+        h ^= 0x9E3779B97F4A7C15L * (level + 1);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) (((h & 0xFFFFFFFFL) * parts) >>> 32);
+    }
+
+    /**
+     * Counts {@code run} within {@code share} bytes and returns its
+     * {@code wordNum} most frequent words with their counts. If its words do
+     * not fit, it is split instead into partitions added to {@code split},
+     * as many as its size divided by the bytes read before they overflowed,
+     * twice over; the words counted so far are split with the rest.
+     *
+     * @param run
+     *            the run to count, which is deleted
+     * @param wordNum
+     *            number of words to keep
+     * @param split
+     *            receives the partitions of the run if it is split
+     * @return the kept words and counts, or null if the run was split
+     * @throws IOException
+     *             if reading or writing a run file fails
+     * @updates split
+     */
+    private WordCounter countRun(Run run, int wordNum, Queue<Run> split)
+            throws IOException {
+        WordCounter words = new WordCounter();
+        List<Run> parts = null;
+        try (DataInputStream in = run.open()) {
+            char[] word = new char[64];
+            long bytesRead = 0;
+            for (long r = 0; r < run.records; r++) {
+                int count = in.readInt();
+                int length = in.readInt();
+                if (length > word.length) {
+                    word = new char[Math.max(length, 2 * word.length)];
+                }
+                for (int i = 0; i < length; i++) {
+                    word[i] = in.readChar();
+                }
+                if (parts == null && run.level < MAX_LEVEL
+                        && overflows(words, word, 0, length, this.share)) {
+                    long fanOut = 2 * ((run.bytes + bytesRead - 1)
+                            / bytesRead);
+                    parts = new ArrayList<>();
+                    while (parts.size() < Math.max(2,
+                            Math.min(MAX_FAN_OUT, fanOut))) {
+                        parts.add(new Run(this.runDirectory, run.level + 1));
+                    }
+                    this.splitAll(words, run.level, parts);
+                    words = null;
+                }
+                if (parts == null) {
+                    words.add(word, 0, length, count);
+                } else {
+                    parts.get(partition(word, length, run.level,
+                            parts.size())).write(count, word, length);
+                }
+                bytesRead += RECORD_HEADER + (long) Character.BYTES * length;
+            }
+        }
+        Files.delete(run.path);
+        if (parts == null) {
+            return top(words, wordNum);
+        }
+        for (Run part : parts) {
+            part.close();
+            split.add(part);
+        }
+        return null;
+    }
+
+    /**
+     * Writes every word of {@code words} with its count to its partition
+     * among {@code parts}.
+     *
+     * @param words
+     *            the counted words
+     * @param level
+     *            number of times the words were split before
+     * @param parts
+     *            the partitions
+     * @throws IOException
+     *             if writing fails
+     */
+    private void splitAll(WordCounter words, int level, List<Run> parts)
+            throws IOException {
+        char[] word = new char[64];
+        for (int id = 0; id < words.size(); id++) {
+            int length = words.wordLength(id);
+            if (length > word.length) {
+                word = new char[Math.max(length, 2 * word.length)];
+            }
+            words.getWordChars(id, word, 0);
+            parts.get(partition(word, length, level, parts.size()))
+                    .write(words.count(id), word, length);
+        }
+    }
+
+    /**
+     * Counts one occurrence of the word {@code chars[start, end)}, first
+     * spilling the counts to disk if adding it would make them outgrow the
+     * budget.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @throws UncheckedIOException
+     *             if spilling fails
+     * @updates this
+     * @requires 0 <= start <= end <= |chars|
+     */
+    @Override
+    public void word(char[] chars, int start, int end) {
+        if (overflows(this.counter, chars, start, end, this.budget)) {
+            try {
+                this.spill();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        this.counter.add(chars, start, end, 1);
+        this.total++;
+    }
+
+    /**
+     * Appends the counts of {@code counter} to the spilled run and empties
+     * it, keeping its storage, which has reached the budget.
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    private void spill() throws IOException {
+        if (this.spilled == null) {
+            this.runDirectory = Files.createTempDirectory(this.spillDirectory,
+                    "tagcloud");
+            this.spilled = new Run(this.runDirectory, 0);
+        }
+        this.spilled.writeAll(this.counter);
+        this.counter.clear();
+        this.spills++;
+    }
+
+    /**
+     * Returns the {@code wordNum} most frequent words of {@code words} with
+     * their counts.
+     *
+     * @param words
+     *            the counted words
+     * @param wordNum
+     *            number of words to keep
+     * @return the kept words and counts
+     */
+    private static WordCounter top(WordCounter words, int wordNum) {
+        WordCounter result = new WordCounter();
+        char[] word = new char[64];
+        for (int id : TopWords.select(words, wordNum)) {
+            int length = words.wordLength(id);
+            if (length > word.length) {
+                word = new char[Math.max(length, 2 * word.length)];
+            }
+            words.getWordChars(id, word, 0);
+            result.add(word, 0, length, words.count(id));
+        }
+        return result;
+    }
+
+    /**
+     * Finishes counting and returns the {@code wordNum} most frequent words
+     * with their exact counts. If anything was spilled, the rest is spilled
+     * too and the spilled run is counted, split into partitions as needed,
+     * on {@code threads} threads. Each counts within {@code 1 / threads} of
+     * the budget, so the counts held in memory stay within the budget.
+     *
+     * @param wordNum
+     *            number of words to return
+     * @param threads
+     *            number of runs counted at once
+     * @return the most frequent words and their counts
+     * @throws IOException
+     *             if spilling or reading the run files fails
+     * @requires 0 <= wordNum and 0 < threads
+     */
+    public WordCounter top(int wordNum, int threads) throws IOException {
+        assert 0 <= wordNum : "Violation of: 0 <= wordNum";
+        assert 0 < threads : "Violation of: 0 < threads";
+
+        if (this.spilled == null) {
+            return top(this.counter, wordNum);
+        }
+        this.spill();
+        this.spilled.close();
+        //Frees the storage of the counter for the runs counted next
+        this.counter = new WordCounter();
+
+        this.share = Math.max(MIN_SHARE, this.budget / threads);
+        WordCounter result = new WordCounter();
+        List<Run> pending = List.of(this.spilled);
+        ForkJoinPool pool = Metrics.forkJoinPool(threads);
+        try {
+            //Counts the runs in rounds, each splitting the runs that do not
+            //fit into the runs of the next
+            while (!pending.isEmpty()) {
+                Queue<Run> split = new ConcurrentLinkedQueue<>();
+                List<Callable<WordCounter>> tasks = new ArrayList<>();
+                for (Run run : pending) {
+                    tasks.add(() -> this.countRun(run, wordNum, split));
+                }
+                for (Future<WordCounter> runTop : pool.invokeAll(tasks)) {
+                    WordCounter words = runTop.get();
+                    if (words != null) {
+                        result.addAll(words);
+                    }
+                }
+                pending = new ArrayList<>(split);
+            }
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while counting partitions", e);
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of times the counts were spilled to disk.
+     *
+     * @return the number of spills
+     */
+    public int spills() {
+        return this.spills;
+    }
+
+    /**
+     * Returns the number of words counted.
+     *
+     * @return the number of words counted
+     */
+    public long total() {
+        return this.total;
+    }
+
+    /**
+     * Deletes the run files.
+     *
+     * @throws IOException
+     *             if a run file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.runDirectory != null) {
+            this.spilled.close();
+            try (Stream<Path> files = Files.list(this.runDirectory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(this.runDirectory);
+            this.runDirectory = null;
+        }
+    }
+
+}
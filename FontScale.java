@@ -0,0 +1,239 @@
+/**
+ * Maps word counts to font sizes for one cloud. The counts between the
+ * smallest and largest count of the cloud are spread over the font sizes
+ * {@code MIN_FONT} to {@code MAX_FONT} along a curve: linearly, or by the
+ * logarithm or square root of the count, which give rare words more room
+ * when a few words dominate. The position on the curve is computed in
+ * floating point and rounded up, so only the smallest count gets the
+ * smallest font and the largest count gets the largest.
+ *
+ * <p>
+ * The font of every count is computed once, when the scale is created, into
+ * a table indexed by count. When the counts span more values than the table
+ * holds, each entry covers a range of counts and holds the font of the
+ * first; the smallest count of each font size is kept too, so a count whose
+ * range holds a font boundary is moved past it. Looking up a tag's font
+ * then takes a table access and no floating-point arithmetic.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class FontScale {
+
+    /**
+     * How counts are spread over the font sizes.
+     */
+    public enum Curve {
+        /**
+         * In proportion to the count.
+         */
+        LINEAR,
+
+        /**
+         * In proportion to the logarithm of the count.
+         */
+        LOG,
+
+        /**
+         * In proportion to the square root of the count.
+         */
+        SQRT
+    }
+
+    /**
+     * Smallest font size.
+     */
+    public static final int MIN_FONT = CloudRenderer.MIN_FONT;
+
+    /**
+     * Largest font size.
+     */
+    public static final int MAX_FONT = CloudRenderer.MAX_FONT;
+
+    /**
+     * Largest number of entries of the table.
+     */
+    private static final int TABLE_LIMIT = 1 << 12;
+
+    /**
+     * Smallest count of the cloud.
+     */
+    private final int min;
+
+    /**
+     * Largest count of the cloud.
+     */
+    private final int max;
+
+    /**
+     * Number of low bits of a count's offset from {@code min} ignored by the
+     * table, so each entry covers {@code 2^shift} counts.
+     */
+    private final int shift;
+
+    /**
+     * Font of the first count of each entry.
+     */
+    private final byte[] table;
+
+    /**
+     * Smallest count of each font size above {@code MIN_FONT}, by font size
+     * minus {@code MIN_FONT + 1}; null if {@code shift} is 0.
+     */
+    private final int[] thresholds;
+
+    /**
+     * Creates the scale of a cloud whose counts go from {@code min} to
+     * {@code max}.
+     *
+     * @param curve
+     *            how counts are spread over the font sizes
+     * @param min
+     *            the smallest count
+     * @param max
+     *            the largest count
+     * @requires 0 <= min <= max
+     */
+    public FontScale(Curve curve, int min, int max) {
+        assert curve != null : "Violation of: curve is not null";
+        assert 0 <= min : "Violation of: 0 <= min";
+        assert min <= max : "Violation of: min <= max";
+
+        this.min = min;
+        this.max = max;
+        int shift = 0;
+        while (((long) max - min) >>> shift >= TABLE_LIMIT) {
+            shift++;
+        }
+        this.shift = shift;
+        this.table = new byte[(int) (((long) max - min) >>> shift) + 1];
+        this.table[0] = (byte) MAX_FONT;
+        if (min < max) {
+            double low = position(curve, min);
+            double range = position(curve, max) - low;
+            for (int i = 0; i < this.table.length; i++) {
+                this.table[i] = (byte) font(curve, low, range,
+                        (int) (min + ((long) i << shift)));
+            }
+        }
+        if (shift == 0) {
+            this.thresholds = null;
+        } else {
+            this.thresholds = new int[MAX_FONT - MIN_FONT];
+            for (int font = MIN_FONT + 1; font <= MAX_FONT; font++) {
+                //Finds the smallest count reaching font; fonts grow with
+                //the count
+                int low = min;
+                int high = max;
+                while (low < high) {
+                    int middle = low + (high - low) / 2;
+                    if (compute(curve, min, max, middle) >= font) {
+                        high = middle;
+                    } else {
+                        low = middle + 1;
+                    }
+                }
+                this.thresholds[font - MIN_FONT - 1] = low;
+            }
+        }
+    }
+
+    /**
+     * Returns the position of {@code count} on {@code curve}.
+     *
+     * @param curve
+     *            the curve
+     * @param count
+     *            the count
+     * @return the position
+     */
+    private static double position(Curve curve, int count) {
+        double result;
+        switch (curve) {
+            case LOG:
+                result = Math.log1p(count);
+                break;
+            case SQRT:
+                result = Math.sqrt(count);
+                break;
+            default:
+                result = count;
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the font size of {@code count} in a cloud whose counts go from
+     * {@code min} to {@code max}, computed without a table. When all counts
+     * are equal every word gets {@code MAX_FONT}.
+     *
+     * @param curve
+     *            how counts are spread over the font sizes
+     * @param min
+     *            the smallest count
+     * @param max
+     *            the largest count
+     * @param count
+     *            the count; clamped to [min, max]
+     * @return the font size, in [MIN_FONT, MAX_FONT]
+     * @requires 0 <= min <= max
+     */
+    public static int compute(Curve curve, int min, int max, int count) {
+        assert curve != null : "Violation of: curve is not null";
+        assert 0 <= min : "Violation of: 0 <= min";
+        assert min <= max : "Violation of: min <= max";
+
+        if (min == max) {
+            return MAX_FONT;
+        }
+        int c = Math.max(min, Math.min(max, count));
+        double low = position(curve, min);
+        return font(curve, low, position(curve, max) - low, c);
+    }
+
+    /**
+     * Returns the font size of {@code count} on {@code curve}, given the
+     * positions of the smallest count and of the range of counts.
+     *
+     * @param curve
+     *            how counts are spread over the font sizes
+     * @param low
+     *            the position of the smallest count
+     * @param range
+     *            the position of the largest count minus {@code low}
+     * @param count
+     *            the count, in the range
+     * @return the font size, in [MIN_FONT, MAX_FONT]
+     * @requires 0 < range
+     */
+    private static int font(Curve curve, double low, double range,
+            int count) {
+        double fraction = (position(curve, count) - low) / range;
+        int steps = (int) Math.ceil(fraction * (MAX_FONT - MIN_FONT));
+        return MIN_FONT + Math.max(0, Math.min(MAX_FONT - MIN_FONT, steps));
+    }
+
+    /**
+     * Returns the font size of {@code count}.
+     *
+     * @param count
+     *            the count; clamped to the counts of the cloud
+     * @return the font size, in [MIN_FONT, MAX_FONT]
+     */
+    public int font(int count) {
+        int c = Math.max(this.min, Math.min(this.max, count));
+        int result = this.table[(c - this.min) >>> this.shift];
+        if (this.thresholds != null) {
+            //The entry holds the font of its first count; moves past the
+            //font boundaries between that count and c
+            while (result < MAX_FONT
+                    && c >= this.thresholds[result - MIN_FONT]) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+}
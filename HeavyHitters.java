@@ -0,0 +1,478 @@
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Approximate word counts in bounded memory, for inputs with too many
+ * distinct words to count exactly. The Space-Saving algorithm monitors a
+ * fixed number of words: a word not yet monitored replaces the word with the
+ * smallest count and inherits that count as its possible error, so every
+ * word counted more than {@code total / capacity} times is monitored and each
+ * monitored count is at most that much too high. A Count-Min sketch counts
+ * every word as well; both only ever overestimate, so the smaller of the two
+ * is reported.
+ *
+ * <p>
+ * Monitored words are kept in a hash index for lookup and in a min-heap by
+ * count for replacement, so each word costs O(log capacity) time and memory
+ * stays the same however many distinct words there are.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class HeavyHitters implements WordTokenizer.WordSink {
+
+    /**
+     * Largest number of words monitored, so a tiny error asked for cannot
+     * allocate gigabytes; the Space-Saving bound reported grows instead.
+     */
+    public static final int MAX_CAPACITY = 1 << 22;
+
+    /**
+     * Largest number of counters in a row of the sketch, for the same
+     * reason; the sketch error reported grows instead.
+     */
+    private static final int MAX_WIDTH = 1 << 22;
+
+    /**
+     * The characters of each monitored word.
+     */
+    private final char[][] words;
+
+    /**
+     * The length of each monitored word.
+     */
+    private final int[] lengths;
+
+    /**
+     * The 64-bit hash of each monitored word.
+     */
+    private final long[] hashes;
+
+    /**
+     * The count of each monitored word.
+     */
+    private final int[] counts;
+
+    /**
+     * The most each count may be too high.
+     */
+    private final int[] errors;
+
+    /**
+     * Index of monitored words: entry + 1, or 0 for an empty slot.
+     */
+    private final int[] slots;
+
+    /**
+     * Min-heap of the monitored entries by count.
+     */
+    private final int[] heap;
+
+    /**
+     * Position of each entry in {@code heap}.
+     */
+    private final int[] positions;
+
+    /**
+     * Number of monitored words.
+     */
+    private int size;
+
+    /**
+     * Count-Min sketch, {@code depth} rows of {@code width} counters.
+     */
+    private final int[][] sketch;
+
+    /**
+     * Number of counters in each row of {@code sketch}.
+     */
+    private final int width;
+
+    /**
+     * Relative error of the sketch.
+     */
+    private final double epsilon;
+
+    /**
+     * Probability that a sketch estimate exceeds its error.
+     */
+    private final double delta;
+
+    /**
+     * Number of words counted.
+     */
+    private long total;
+
+    /**
+     * Creates an empty counter monitoring at most {@code capacity} words,
+     * with a sketch whose estimates are at most {@code epsilon * total} too
+     * high with probability at least {@code 1 - delta}. The sketch has at
+     * most {@code MAX_WIDTH} counters per row, so the relative error is at
+     * least {@code e / MAX_WIDTH}.
+     *
+     * @param capacity
+     *            the number of words monitored
+     * @param epsilon
+     *            the relative error of the sketch
+     * @param delta
+     *            the probability of exceeding it
+     * @requires 0 < capacity <= MAX_CAPACITY and 0 < epsilon < 1 and
+     *           0 < delta < 1
+     */
+    public HeavyHitters(int capacity, double epsilon, double delta) {
+        assert 0 < capacity : "Violation of: 0 < capacity";
+        assert capacity <= MAX_CAPACITY : "Violation of: capacity <= "
+                + "MAX_CAPACITY";
+        assert 0 < epsilon && epsilon < 1 : "Violation of: 0 < epsilon < 1";
+        assert 0 < delta && delta < 1 : "Violation of: 0 < delta < 1";
+
+        this.words = new char[capacity][];
+        this.lengths = new int[capacity];
+        this.hashes = new long[capacity];
+        this.counts = new int[capacity];
+        this.errors = new int[capacity];
+        this.slots = new int[Integer.highestOneBit(capacity) * 4];
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.width = (int) Math.min(MAX_WIDTH, Math.ceil(Math.E / epsilon));
+        this.epsilon = Math.max(epsilon, Math.E / this.width);
+        this.delta = delta;
+        int depth = (int) Math.ceil(Math.log(1 / delta));
+        this.sketch = new int[Math.max(depth, 1)][this.width];
+    }
+
+    /**
+     * Returns the 64-bit hash of {@code chars[start, end)}.
+     *
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @return the hash
+     */
+    private static long hash(char[] chars, int start, int end) {
+        long h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + chars[i];
+        }
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * Returns the index slot holding the word {@code chars[start, end)}, or
+     * the empty slot where it would go.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param h
+     *            hash of the word
+     * @return the slot
+     */
+    private int find(char[] chars, int start, int end, long h) {
+        int mask = this.slots.length - 1;
+        int slot = (int) h & mask;
+        while (this.slots[slot] != 0) {
+            int entry = this.slots[slot] - 1;
+            if (this.hashes[entry] == h && Arrays.equals(this.words[entry], 0,
+                    this.lengths[entry], chars, start, end)) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Removes the word of {@code entry} from the index, moving back the
+     * slots after it so no probe sequence is broken.
+     *
+     * @param entry
+     *            the entry to unindex
+     */
+    private void unindex(int entry) {
+        int mask = this.slots.length - 1;
+        int hole = this.find(this.words[entry], 0, this.lengths[entry],
+                this.hashes[entry]);
+        this.slots[hole] = 0;
+        int slot = (hole + 1) & mask;
+        while (this.slots[slot] != 0) {
+            int moved = this.slots[slot] - 1;
+            int home = (int) this.hashes[moved] & mask;
+            //Moves the entry back if the hole lies on its probe sequence
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                this.slots[hole] = this.slots[slot];
+                this.slots[slot] = 0;
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns the count of the entry at heap position {@code i}.
+     *
+     * @param i
+     *            a heap position
+     * @return the count
+     */
+    private int countAt(int i) {
+        return this.counts[this.heap[i]];
+    }
+
+    /**
+     * Swaps positions {@code i} and {@code j} of the heap.
+     *
+     * @param i
+     *            a heap position
+     * @param j
+     *            a heap position
+     */
+    private void swap(int i, int j) {
+        int t = this.heap[i];
+        this.heap[i] = this.heap[j];
+        this.heap[j] = t;
+        this.positions[this.heap[i]] = i;
+        this.positions[this.heap[j]] = j;
+    }
+
+    /**
+     * Moves the entry at heap position {@code i} up while it is smaller than
+     * its parent.
+     *
+     * @param i
+     *            a heap position
+     */
+    private void siftUp(int i) {
+        int child = i;
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (this.countAt(parent) <= this.countAt(child)) {
+                break;
+            }
+            this.swap(parent, child);
+            child = parent;
+        }
+    }
+
+    /**
+     * Moves the entry at heap position {@code i} down while it is larger than
+     * a child.
+     *
+     * @param i
+     *            a heap position
+     */
+    private void siftDown(int i) {
+        int parent = i;
+        int child = 2 * parent + 1;
+        while (child < this.size) {
+            if (child + 1 < this.size
+                    && this.countAt(child + 1) < this.countAt(child)) {
+                child++;
+            }
+            if (this.countAt(parent) <= this.countAt(child)) {
+                break;
+            }
+            this.swap(parent, child);
+            parent = child;
+            child = 2 * parent + 1;
+        }
+    }
+
+    /**
+     * Adds {@code increment} to the sketch counters of the word with hash
+     * {@code h} and returns its new estimate.
+     *
+     * @param h
+     *            hash of the word
+     * @param increment
+     *            the amount to add
+     * @return the estimated count of the word
+     */
+    private int sketch(long h, int increment) {
+        //Derives one hash per row from the two halves of h
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1;
+        int estimate = Integer.MAX_VALUE;
+        for (int[] row : this.sketch) {
+            int column = Math.floorMod(h1, this.width);
+            row[column] += increment;
+            estimate = Math.min(estimate, row[column]);
+            h1 += h2;
+        }
+        return estimate;
+    }
+
+    /**
+     * Stores the word {@code chars[start, end)} in {@code entry}.
+     *
+     * @param entry
+     *            the entry to fill
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param h
+     *            hash of the word
+     */
+    private void store(int entry, char[] chars, int start, int end, long h) {
+        int length = end - start;
+        if (this.words[entry] == null || this.words[entry].length < length) {
+            this.words[entry] = new char[Math.max(length, 8)];
+        }
+        System.arraycopy(chars, start, this.words[entry], 0, length);
+        this.lengths[entry] = length;
+        this.hashes[entry] = h;
+    }
+
+    /**
+     * Counts one occurrence of the word {@code chars[start, end)}.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @requires 0 <= start <= end <= |chars|
+     */
+    public void add(char[] chars, int start, int end) {
+        assert chars != null : "Violation of: chars is not null";
+
+        long h = hash(chars, start, end);
+        this.total++;
+        this.sketch(h, 1);
+        int slot = this.find(chars, start, end, h);
+        int entry = this.slots[slot] - 1;
+        if (entry >= 0) {
+            this.counts[entry]++;
+            this.siftDown(this.positions[entry]);
+        } else if (this.size < this.heap.length) {
+            entry = this.size;
+            this.store(entry, chars, start, end, h);
+            this.counts[entry] = 1;
+            this.errors[entry] = 0;
+            this.slots[slot] = entry + 1;
+            this.heap[this.size] = entry;
+            this.positions[entry] = this.size;
+            this.size++;
+            this.siftUp(this.size - 1);
+        } else {
+            //Replaces the least counted word, which may have been this one
+            entry = this.heap[0];
+            this.unindex(entry);
+            this.store(entry, chars, start, end, h);
+            this.errors[entry] = this.counts[entry];
+            this.counts[entry]++;
+            this.slots[this.find(chars, start, end, h)] = entry + 1;
+            this.siftDown(0);
+        }
+    }
+
+    @Override
+    public void word(char[] chars, int start, int end) {
+        this.add(chars, start, end);
+    }
+
+    /**
+     * Returns the number of words counted.
+     *
+     * @return the number of words counted
+     */
+    public long total() {
+        return this.total;
+    }
+
+    /**
+     * Returns the estimated count of each monitored word: its Space-Saving
+     * count or its sketch estimate, whichever is smaller.
+     *
+     * @return the monitored words and their estimated counts
+     */
+    public WordCounter estimates() {
+        WordCounter result = new WordCounter();
+        for (int entry = 0; entry < this.size; entry++) {
+            char[] word = this.words[entry];
+            int length = this.lengths[entry];
+            int estimate = Math.min(this.counts[entry],
+                    this.sketch(this.hashes[entry], 0));
+            result.add(word, 0, length, estimate);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of the {@code n} words of the cloud of
+     * {@code estimates}, ranked as it is rendered, that are certainly among
+     * the {@code n} most frequent words of the input: those whose count
+     * minus its error is at least the highest count any word left out may
+     * have.
+     *
+     * @param n
+     *            the number of words in the cloud
+     * @return the number of guaranteed words
+     */
+    public int guaranteed(int n) {
+        //The ids of estimates are the entries, added in order
+        int[] shown = TopWords.select(this.estimates(), n);
+        boolean[] isShown = new boolean[this.size];
+        for (int entry : shown) {
+            isShown[entry] = true;
+        }
+        //A word never monitored, or evicted, was counted at most as often as
+        //the least counted monitored word
+        int next = 0;
+        if (this.size == this.heap.length) {
+            next = this.counts[this.heap[0]];
+        }
+        for (int entry = 0; entry < this.size; entry++) {
+            if (!isShown[entry]) {
+                next = Math.max(next, this.counts[entry]);
+            }
+        }
+        int result = 0;
+        for (int entry : shown) {
+            if (this.counts[entry] - this.errors[entry] >= next) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Prints the error guarantees of the counts of the {@code n} most
+     * counted words to {@code out}.
+     *
+     * @param out
+     *            receives the report
+     * @param n
+     *            the number of words in the cloud
+     */
+    public void report(PrintStream out, int n) {
+        assert out != null : "Violation of: out is not null";
+
+        int capacity = this.heap.length;
+        out.printf("approximate counts of %d words, %d monitored%n",
+                this.total, this.size);
+        out.printf("space-saving: %d counters, each count at most %.1f "
+                + "too high (total / counters)%n", capacity,
+                (double) this.total / capacity);
+        out.printf("count-min: %d x %d counters, each estimate at most %.1f "
+                + "too high (epsilon %s * total) with probability %s%n",
+                this.sketch.length, this.width, this.epsilon * this.total,
+                this.epsilon, 1 - this.delta);
+        out.printf("%d of the top %d words are guaranteed to be among the "
+                + "%d most frequent%n", this.guaranteed(n),
+                Math.min(n, this.size), n);
+    }
+
+}
@@ -0,0 +1,293 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Counts the words of an append-only file incrementally. The offset of the
+ * first byte not yet counted, a checksum of the start of the file and the
+ * counts, in the {@code WordCountsFile} format, are kept in a snapshot file;
+ * each run restores them, tokenizes only the bytes appended since, and saves
+ * them again, so regenerating a cloud costs time proportional to the new data
+ * rather than to the whole file.
+ *
+ * <p>
+ * Only complete lines are counted: a last line without a line break is left
+ * for the next run, in case it is still being written. If the file has
+ * shrunk or its start has changed (it was truncated or rotated), the snapshot
+ * is discarded and the file is counted from the beginning.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class IncrementalCounter {
+
+    /**
+     * The bytes and words counted by one run of {@code count}.
+     */
+    public static final class Progress {
+
+        /**
+         * Number of bytes of the input read.
+         */
+        private final long bytes;
+
+        /**
+         * Number of words counted.
+         */
+        private final long tokens;
+
+        /**
+         * Creates the progress of a run.
+         *
+         * @param bytes
+         *            number of bytes of the input read
+         * @param tokens
+         *            number of words counted
+         */
+        Progress(long bytes, long tokens) {
+            this.bytes = bytes;
+            this.tokens = tokens;
+        }
+
+        /**
+         * Returns the number of bytes of the input read by the run, those
+         * appended since the previous run.
+         *
+         * @return the number of bytes read
+         */
+        public long bytes() {
+            return this.bytes;
+        }
+
+        /**
+         * Returns the number of words counted by the run, not including
+         * those restored from the snapshot.
+         *
+         * @return the number of words counted
+         */
+        public long tokens() {
+            return this.tokens;
+        }
+    }
+
+    /**
+     * Identifies a snapshot file.
+     */
+    private static final int MAGIC = 0x54434953;
+
+    /**
+     * Version of the snapshot format.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Largest number of leading bytes covered by the checksum.
+     */
+    private static final int HEAD_SIZE = 4096;
+
+    /**
+     * Size of the blocks read when looking for the last line break.
+     */
+    private static final int SCAN_SIZE = 1 << 16;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private IncrementalCounter() {
+    }
+
+    /**
+     * Returns the CRC32 of the first {@code length} bytes of {@code channel}.
+     *
+     * @param channel
+     *            the file
+     * @param length
+     *            the number of bytes to check
+     * @return the checksum
+     * @throws IOException
+     *             if reading fails
+     */
+    private static long headChecksum(FileChannel channel, int length)
+            throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(length);
+        int read = 0;
+        while (head.hasRemaining() && read >= 0) {
+            read = channel.read(head, head.position());
+        }
+        head.flip();
+        CRC32 crc = new CRC32();
+        crc.update(head);
+        return crc.getValue();
+    }
+
+    /**
+     * Returns the offset just past the last line break in bytes
+     * {@code [start, end)} of {@code channel}, or {@code start} if there is
+     * none.
+     *
+     * @param channel
+     *            the file
+     * @param start
+     *            offset of the first byte to search
+     * @param end
+     *            offset one past the last byte to search
+     * @return the end of the last complete line
+     * @throws IOException
+     *             if reading fails
+     */
+    private static long lastLineEnd(FileChannel channel, long start,
+            long end) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(SCAN_SIZE);
+        long blockEnd = end;
+        while (blockEnd > start) {
+            long blockStart = Math.max(start, blockEnd - SCAN_SIZE);
+            block.clear();
+            block.limit((int) (blockEnd - blockStart));
+            int read = 0;
+            while (block.hasRemaining() && read >= 0) {
+                read = channel.read(block, blockStart + block.position());
+            }
+            for (int i = block.position() - 1; i >= 0; i--) {
+                byte b = block.get(i);
+                if (b == '\n' || b == '\r') {
+                    return blockStart + i + 1;
+                }
+            }
+            blockEnd = blockStart;
+        }
+        return start;
+    }
+
+    /**
+     * Counts the words of {@code input} into {@code counter}, reading only the
+     * bytes appended since the state saved in {@code snapshot}, and saves the
+     * new state. {@code counter} must be empty; on return it holds the counts
+     * of every complete line of {@code input}.
+     *
+     * @param input
+     *            the input file name
+     * @param snapshot
+     *            the snapshot file name; created if missing
+     * @param tokenizer
+     *            the tokenizer to split the input with
+     * @param counter
+     *            receives the counts
+     * @return the bytes read and words counted by this run
+     * @throws IOException
+     *             if reading the input or reading or writing the snapshot
+     *             fails
+     * @requires counter.size() = 0
+     */
+    public static Progress count(String input, String snapshot,
+            WordTokenizer tokenizer, WordCounter counter) throws IOException {
+        assert input != null : "Violation of: input is not null";
+        assert snapshot != null : "Violation of: snapshot is not null";
+        assert tokenizer != null : "Violation of: tokenizer is not null";
+        assert counter.size() == 0 : "Violation of: counter is empty";
+
+        Path snapshotPath = Paths.get(snapshot);
+        try (FileChannel channel = FileChannel.open(Paths.get(input),
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            //Restores the previous state if it still describes this file
+            long offset = 0;
+            if (Files.exists(snapshotPath)) {
+                try (DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(
+                                Files.newInputStream(snapshotPath)))) {
+                    offset = restore(in, channel, size, counter);
+                }
+                if (offset == 0) {
+                    counter.clear();
+                }
+            }
+
+            long end = lastLineEnd(channel, offset, size);
+            long restored = counter.total();
+            new MappedTextReader(tokenizer).tokenize(channel, offset, end,
+                    new TagCloud10.CounterSink(counter));
+
+            int headLength = (int) Math.min(end, HEAD_SIZE);
+            long head = headChecksum(channel, headLength);
+            save(snapshotPath, end, headLength, head, counter);
+            return new Progress(end - offset, counter.total() - restored);
+        }
+    }
+
+    /**
+     * Reads a snapshot into {@code counter} and returns the offset it was
+     * taken at, or 0 if it does not match the file.
+     *
+     * @param in
+     *            the snapshot stream
+     * @param channel
+     *            the input file
+     * @param size
+     *            the current size of the input file
+     * @param counter
+     *            receives the saved counts
+     * @return the offset of the first byte not yet counted, or 0
+     * @throws IOException
+     *             if the snapshot is malformed
+     */
+    private static long restore(DataInputStream in, FileChannel channel,
+            long size, WordCounter counter) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a word count snapshot");
+        }
+        long offset = in.readLong();
+        int headLength = in.readInt();
+        long head = in.readLong();
+        if (offset > size || headChecksum(channel, headLength) != head) {
+            return 0;
+        }
+        WordCountsFile.read(in, counter);
+        return offset;
+    }
+
+    /**
+     * Saves the state of an incremental count, replacing the previous
+     * snapshot only once the new one is completely written.
+     *
+     * @param snapshot
+     *            the snapshot file
+     * @param offset
+     *            offset of the first byte not yet counted
+     * @param headLength
+     *            number of leading bytes covered by {@code head}
+     * @param head
+     *            checksum of the leading bytes
+     * @param counter
+     *            the counts
+     * @throws IOException
+     *             if writing fails
+     */
+    private static void save(Path snapshot, long offset, int headLength,
+            long head, WordCounter counter) throws IOException {
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(offset);
+            out.writeInt(headLength);
+            out.writeLong(head);
+            WordCountsFile.write(counter, out);
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -0,0 +1,288 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tokenizes UTF-8 files directly from memory-mapped windows, without reading
+ * them into {@code String}s line by line. ASCII bytes are turned into
+ * characters with a single comparison; multi-byte sequences are decoded in
+ * place, and malformed bytes become {@code U+FFFD} as they would with a
+ * replacing decoder. The file is mapped in windows of at most
+ * {@code WINDOW_SIZE} bytes, so files larger than 2 GB are supported, and a
+ * word or a multi-byte sequence may span two windows.
+ *
+ * <p>
+ * Each word is collected into a reusable buffer owned by the reader, so a
+ * {@code MappedTextReader} must not be shared between threads.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class MappedTextReader {
+
+    /**
+     * Largest number of bytes mapped at once.
+     */
+    private static final long WINDOW_SIZE = 1L << 28;
+
+    /**
+     * Character substituted for malformed input.
+     */
+    private static final char REPLACEMENT = '\uFFFD';
+
+    /**
+     * Mask of the payload bits of a lead byte, by sequence length.
+     */
+    private static final int[] LEAD_MASKS = { 0, 0, 0x1F, 0x0F, 0x07 };
+
+    /**
+     * Tokenizer deciding which characters are separators.
+     */
+    private final WordTokenizer tokenizer;
+
+    /**
+     * Characters of the word being collected.
+     */
+    private char[] word = new char[64];
+
+    /**
+     * Number of characters in {@code word}.
+     */
+    private int wordLength;
+
+    /**
+     * Number of bytes consumed by the last call to {@code decode}.
+     */
+    private int decoded;
+
+    /**
+     * Creates a reader splitting words with {@code tokenizer}.
+     *
+     * @param tokenizer
+     *            the tokenizer deciding which characters are separators
+     */
+    public MappedTextReader(WordTokenizer tokenizer) {
+        assert tokenizer != null : "Violation of: tokenizer is not null";
+
+        this.tokenizer = tokenizer;
+    }
+
+    /**
+     * Adds {@code ch} to the current word, or reports the current word to
+     * {@code sink} if {@code ch} is a separator.
+     *
+     * @param ch
+     *            the next decoded character
+     * @param sink
+     *            receives each completed word
+     */
+    private void accept(char ch, WordTokenizer.WordSink sink) {
+        if (this.tokenizer.isSeparator(ch)) {
+            this.flush(sink);
+        } else {
+            if (this.wordLength == this.word.length) {
+                char[] larger = new char[this.word.length * 2];
+                System.arraycopy(this.word, 0, larger, 0, this.wordLength);
+                this.word = larger;
+            }
+            this.word[this.wordLength] = ch;
+            this.wordLength++;
+        }
+    }
+
+    /**
+     * Reports the current word to {@code sink}, if there is one.
+     *
+     * @param sink
+     *            receives the word
+     */
+    private void flush(WordTokenizer.WordSink sink) {
+        if (this.wordLength > 0) {
+            sink.word(this.word, 0, this.wordLength);
+            this.wordLength = 0;
+        }
+    }
+
+    /**
+     * Returns the length of the UTF-8 sequence starting with {@code lead}, or
+     * 0 if {@code lead} cannot start a sequence.
+     *
+     * @param lead
+     *            the first byte of the sequence, as an unsigned value
+     * @return the sequence length, or 0
+     */
+    private static int sequenceLength(int lead) {
+        int length = 0;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            length = 2;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            length = 3;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            length = 4;
+        }
+        return length;
+    }
+
+    /**
+     * Reports whether {@code second} may follow {@code lead}; the ranges
+     * exclude overlong forms and code points above {@code U+10FFFF}.
+     *
+     * @param lead
+     *            the lead byte, as an unsigned value
+     * @param second
+     *            the second byte, as an unsigned value
+     * @return true iff the pair can start a well-formed sequence
+     */
+    private static boolean validSecond(int lead, int second) {
+        int low = 0x80;
+        int high = 0xBF;
+        if (lead == 0xE0) {
+            low = 0xA0;
+        } else if (lead == 0xF0) {
+            low = 0x90;
+        } else if (lead == 0xF4) {
+            high = 0x8F;
+        }
+        return low <= second && second <= high;
+    }
+
+    /**
+     * Decodes the {@code length}-byte sequence at {@code index}, returning its
+     * code point, or -1 if it is malformed or cut off by {@code limit}. Either
+     * way {@code decoded} is set to the number of bytes consumed, which for a
+     * malformed sequence is its longest well-formed prefix, as a replacing
+     * {@code CharsetDecoder} would consume.
+     *
+     * @param buffer
+     *            the mapped window
+     * @param index
+     *            the index of the lead byte
+     * @param length
+     *            the sequence length, 2 to 4
+     * @param limit
+     *            the number of bytes in {@code buffer}
+     * @return the code point, or -1
+     */
+    private int decode(MappedByteBuffer buffer, int index, int length,
+            int limit) {
+        int lead = buffer.get(index) & 0xFF;
+        int cp = lead & LEAD_MASKS[length];
+        int k = 1;
+        boolean valid = true;
+        while (valid && k < length) {
+            if (index + k >= limit) {
+                valid = false;
+            } else {
+                int b = buffer.get(index + k) & 0xFF;
+                if (k == 1) {
+                    valid = validSecond(lead, b);
+                } else {
+                    valid = (b & 0xC0) == 0x80;
+                }
+                if (valid) {
+                    cp = (cp << 6) | (b & 0x3F);
+                    k++;
+                }
+            }
+        }
+        this.decoded = k;
+        //An encoded surrogate is replaced as a whole, as the JDK decoder does
+        if (!valid || (cp >= Character.MIN_SURROGATE
+                && cp <= Character.MAX_SURROGATE)) {
+            cp = -1;
+        }
+        return cp;
+    }
+
+    /**
+     * Reports every word of bytes {@code [start, end)} of {@code channel},
+     * decoded as UTF-8, to {@code sink}. {@code start} and {@code end} should
+     * fall on separators (line breaks, for instance) so that no word is cut
+     * in two.
+     *
+     * @param channel
+     *            the file to read
+     * @param start
+     *            offset of the first byte to read
+     * @param end
+     *            offset one past the last byte to read
+     * @param sink
+     *            receives each word
+     * @throws IOException
+     *             if mapping the file fails
+     * @requires 0 <= start <= end <= channel.size()
+     */
+    public void tokenize(FileChannel channel, long start, long end,
+            WordTokenizer.WordSink sink) throws IOException {
+        assert channel != null : "Violation of: channel is not null";
+        assert sink != null : "Violation of: sink is not null";
+        assert 0 <= start : "Violation of: 0 <= start";
+        assert start <= end : "Violation of: start <= end";
+
+        this.wordLength = 0;
+        long position = start;
+        while (position < end) {
+            int size = (int) Math.min(WINDOW_SIZE, end - position);
+            boolean lastWindow = position + size == end;
+            MappedByteBuffer buffer = channel
+                    .map(FileChannel.MapMode.READ_ONLY, position, size);
+
+            int i = 0;
+            boolean windowDone = false;
+            while (i < size && !windowDone) {
+                int b = buffer.get(i);
+                if (b >= 0) {
+                    //ASCII fast path
+                    this.accept((char) b, sink);
+                    i++;
+                } else {
+                    int length = sequenceLength(b & 0xFF);
+                    if (length > 0 && i + length > size && !lastWindow) {
+                        //Decodes this sequence at the start of the next window
+                        windowDone = true;
+                    } else if (length == 0) {
+                        this.accept(REPLACEMENT, sink);
+                        i++;
+                    } else {
+                        int cp = this.decode(buffer, i, length, size);
+                        if (cp < 0) {
+                            this.accept(REPLACEMENT, sink);
+                        } else if (Character.isBmpCodePoint(cp)) {
+                            this.accept((char) cp, sink);
+                        } else {
+                            this.accept(Character.highSurrogate(cp), sink);
+                            this.accept(Character.lowSurrogate(cp), sink);
+                        }
+                        i += this.decoded;
+                    }
+                }
+            }
+            position += i;
+        }
+        this.flush(sink);
+    }
+
+    /**
+     * Reports every word of {@code file}, decoded as UTF-8, to {@code sink}.
+     *
+     * @param file
+     *            the file to read
+     * @param sink
+     *            receives each word
+     * @throws IOException
+     *             if opening or mapping the file fails
+     */
+    public void tokenize(Path file, WordTokenizer.WordSink sink)
+            throws IOException {
+        assert file != null : "Violation of: file is not null";
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            this.tokenize(channel, 0, channel.size(), sink);
+        }
+    }
+
+}
@@ -0,0 +1,446 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Run-time counters of {@code TagCloud10}: the wall time and number of calls
+ * of each stage, the bytes, lines and tokens read, the number of distinct
+ * words, the number of files and errors, and an estimate of the memory
+ * allocated. The estimate sums the allocations of the live threads and of
+ * the threads that have ended, if they were made by {@code forkJoinPool} or
+ * {@code threadFactory}, as the pools of {@code TagCloud10} are; the JVM
+ * does not count the allocations of virtual threads. Every method is
+ * thread-safe and cheap enough to call once per file, so the counters are
+ * always kept; {@code summary}, {@code toJson} and the {@code MetricsMXBean}
+ * registered by {@code register} make them visible.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class Metrics implements MetricsMXBean {
+
+    /**
+     * The stages of generating a cloud.
+     */
+    public enum Stage {
+        /**
+         * Reading saved counts.
+         */
+        LOAD,
+
+        /**
+         * Reading, tokenizing and counting the input; done in one pass.
+         */
+        COUNT,
+
+        /**
+         * Selecting the most frequent words.
+         */
+        SELECT,
+
+        /**
+         * Rendering the page.
+         */
+        RENDER,
+
+        /**
+         * Writing the page.
+         */
+        WRITE,
+
+        /**
+         * Saving the counts.
+         */
+        SAVE
+    }
+
+    /**
+     * Bytes allocated by the threads of {@code forkJoinPool} and
+     * {@code threadFactory} that have ended.
+     */
+    private static final LongAdder ENDED_THREADS_ALLOCATED = new LongAdder();
+
+    /**
+     * Counters of the whole process.
+     */
+    private static final Metrics GLOBAL = new Metrics();
+
+    /**
+     * Name the counters are registered under with JMX.
+     */
+    private static final String OBJECT_NAME = "TagCloud:type=Metrics";
+
+    /**
+     * Wall time of each stage, in nanoseconds.
+     */
+    private final AtomicLongArray stageNanos = new AtomicLongArray(
+            Stage.values().length);
+
+    /**
+     * Number of calls of each stage.
+     */
+    private final AtomicLongArray stageCalls = new AtomicLongArray(
+            Stage.values().length);
+
+    /**
+     * Number of input bytes read.
+     */
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * Number of lines read.
+     */
+    private final LongAdder lines = new LongAdder();
+
+    /**
+     * Number of words read.
+     */
+    private final LongAdder tokens = new LongAdder();
+
+    /**
+     * Number of input files counted.
+     */
+    private final LongAdder files = new LongAdder();
+
+    /**
+     * Number of errors reported.
+     */
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Distinct words of the last cloud.
+     */
+    private final AtomicLong uniqueWords = new AtomicLong();
+
+    /**
+     * Largest number of distinct words of any cloud.
+     */
+    private final AtomicLong peakWords = new AtomicLong();
+
+    /**
+     * Bytes allocated by the live threads when the counters were created.
+     */
+    private final long allocatedAtStart = allocated();
+
+    /**
+     * Returns the counters of the whole process.
+     *
+     * @return the global counters
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the JVM's per-thread allocation counters, or null if it has
+     * none or they are disabled.
+     *
+     * @return the thread bean, or null
+     */
+    private static com.sun.management.ThreadMXBean allocationCounters() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean result = null;
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot =
+                    (com.sun.management.ThreadMXBean) threads;
+            if (hotspot.isThreadAllocatedMemorySupported()
+                    && hotspot.isThreadAllocatedMemoryEnabled()) {
+                result = hotspot;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the bytes allocated so far by the live threads and the ended
+     * threads of {@code forkJoinPool} and {@code threadFactory}, or -1 if the
+     * JVM cannot tell.
+     *
+     * @return the allocated bytes, or -1
+     */
+    private static long allocated() {
+        com.sun.management.ThreadMXBean hotspot = allocationCounters();
+        long result = -1;
+        if (hotspot != null) {
+            result = ENDED_THREADS_ALLOCATED.sum();
+            for (long bytesOfThread : hotspot.getThreadAllocatedBytes(
+                    hotspot.getAllThreadIds())) {
+                result += Math.max(bytesOfThread, 0);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the bytes allocated by the current thread, which is ending, to
+     * those of the ended threads, so they are still counted once it is gone.
+     */
+    private static void threadEnding() {
+        com.sun.management.ThreadMXBean hotspot = allocationCounters();
+        if (hotspot != null) {
+            ENDED_THREADS_ALLOCATED.add(Math.max(
+                    hotspot.getCurrentThreadAllocatedBytes(), 0));
+        }
+    }
+
+    /**
+     * Returns a new {@code ForkJoinPool} of {@code parallelism} threads
+     * whose allocations are still counted after they end.
+     *
+     * @param parallelism
+     *            the number of threads
+     * @return the pool
+     * @requires 0 < parallelism
+     */
+    public static ForkJoinPool forkJoinPool(int parallelism) {
+        assert 0 < parallelism : "Violation of: 0 < parallelism";
+
+        return new ForkJoinPool(parallelism, pool -> new ForkJoinWorkerThread(
+                pool) {
+            @Override
+            protected void onTermination(Throwable exception) {
+                threadEnding();
+                super.onTermination(exception);
+            }
+        }, null, false);
+    }
+
+    /**
+     * Returns a thread factory whose threads' allocations are still counted
+     * after they end.
+     *
+     * @return the thread factory
+     */
+    public static ThreadFactory threadFactory() {
+        ThreadFactory threads = Executors.defaultThreadFactory();
+        return task -> threads.newThread(() -> {
+            try {
+                task.run();
+            } finally {
+                threadEnding();
+            }
+        });
+    }
+
+    /**
+     * Returns a start time for {@code stop}.
+     *
+     * @return the current time, in nanoseconds
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Adds the time since {@code start} to {@code stage}.
+     *
+     * @param stage
+     *            the stage that ran
+     * @param start
+     *            the time returned by {@code start} when it began
+     */
+    public void stop(Stage stage, long start) {
+        this.stageNanos.addAndGet(stage.ordinal(), System.nanoTime() - start);
+        this.stageCalls.incrementAndGet(stage.ordinal());
+    }
+
+    /**
+     * Records one input file of {@code size} bytes.
+     *
+     * @param size
+     *            the size of the file, or -1 if unknown
+     */
+    public void file(long size) {
+        this.files.increment();
+        if (size > 0) {
+            this.bytes.add(size);
+        }
+    }
+
+    /**
+     * Records {@code n} lines read.
+     *
+     * @param n
+     *            the number of lines
+     */
+    public void lines(long n) {
+        this.lines.add(n);
+    }
+
+    /**
+     * Records {@code n} words read.
+     *
+     * @param n
+     *            the number of tokens
+     */
+    public void tokens(long n) {
+        this.tokens.add(n);
+    }
+
+    /**
+     * Records a cloud selected from {@code n} distinct words.
+     *
+     * @param n
+     *            the number of distinct words
+     */
+    public void words(long n) {
+        this.uniqueWords.set(n);
+        this.peakWords.accumulateAndGet(n, Math::max);
+    }
+
+    /**
+     * Records one error.
+     */
+    public void error() {
+        this.errors.increment();
+    }
+
+    @Override
+    public Map<String, Long> getStageMillis() {
+        final long nanosPerMilli = 1_000_000;
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            result.put(stage.name().toLowerCase(Locale.ROOT),
+                    this.stageNanos.get(stage.ordinal()) / nanosPerMilli);
+        }
+        return result;
+    }
+
+    @Override
+    public long getBytes() {
+        return this.bytes.sum();
+    }
+
+    @Override
+    public long getLines() {
+        return this.lines.sum();
+    }
+
+    @Override
+    public long getTokens() {
+        return this.tokens.sum();
+    }
+
+    @Override
+    public long getUniqueWords() {
+        return this.uniqueWords.get();
+    }
+
+    @Override
+    public long getPeakWords() {
+        return this.peakWords.get();
+    }
+
+    @Override
+    public long getFiles() {
+        return this.files.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return this.errors.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        long now = allocated();
+        long result = -1;
+        if (now >= 0 && this.allocatedAtStart >= 0) {
+            result = Math.max(now - this.allocatedAtStart, 0);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the counters as human-readable lines.
+     *
+     * @return the summary
+     */
+    public String summary() {
+        final double nanosPerMilli = 1e6;
+        StringBuilder text = new StringBuilder();
+        String nl = System.lineSeparator();
+        for (Stage stage : Stage.values()) {
+            long calls = this.stageCalls.get(stage.ordinal());
+            if (calls > 0) {
+                text.append(String.format("%-8s %10.3f ms  %6d calls%n",
+                        stage.name().toLowerCase(Locale.ROOT),
+                        this.stageNanos.get(stage.ordinal()) / nanosPerMilli,
+                        calls));
+            }
+        }
+        text.append("files ").append(this.getFiles()).append(", bytes ")
+                .append(this.getBytes()).append(", lines ")
+                .append(this.getLines()).append(", tokens ")
+                .append(this.getTokens()).append(nl);
+        text.append("unique words ").append(this.getUniqueWords())
+                .append(", peak ").append(this.getPeakWords())
+                .append(", errors ").append(this.getErrors())
+                .append(", allocated bytes ").append(this.getAllocatedBytes())
+                .append(nl);
+        return text.toString();
+    }
+
+    /**
+     * Returns the counters as a JSON object.
+     *
+     * @return the JSON text
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"stages\":{");
+        for (Stage stage : Stage.values()) {
+            if (stage.ordinal() > 0) {
+                json.append(',');
+            }
+            json.append('"')
+                    .append(stage.name().toLowerCase(Locale.ROOT))
+                    .append("\":{\"nanos\":")
+                    .append(this.stageNanos.get(stage.ordinal()))
+                    .append(",\"calls\":")
+                    .append(this.stageCalls.get(stage.ordinal())).append('}');
+        }
+        json.append("},\"files\":").append(this.getFiles())
+                .append(",\"bytes\":").append(this.getBytes())
+                .append(",\"lines\":").append(this.getLines())
+                .append(",\"tokens\":").append(this.getTokens())
+                .append(",\"uniqueWords\":").append(this.getUniqueWords())
+                .append(",\"peakWords\":").append(this.getPeakWords())
+                .append(",\"errors\":").append(this.getErrors())
+                .append(",\"allocatedBytes\":")
+                .append(this.getAllocatedBytes()).append('}');
+        return json.toString();
+    }
+
+    @Override
+    public String getJson() {
+        return this.toJson();
+    }
+
+    /**
+     * Registers these counters with the platform MBean server, so they can
+     * be watched with JConsole or any JMX client while a run is going on.
+     *
+     * @throws JMException
+     *             if the counters cannot be registered
+     */
+    public void register() throws JMException {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    name);
+        }
+    }
+
+}
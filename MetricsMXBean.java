@@ -0,0 +1,84 @@
+import java.util.Map;
+
+/**
+ * Management interface of {@code Metrics}, registered with JMX so the run
+ * counters can be watched with JConsole or any JMX client.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Returns the wall time of each stage, in milliseconds.
+     *
+     * @return the time of each stage, by lowercase stage name
+     */
+    Map<String, Long> getStageMillis();
+
+    /**
+     * Returns the number of input bytes read.
+     *
+     * @return the number of bytes
+     */
+    long getBytes();
+
+    /**
+     * Returns the number of lines read, for inputs read line by line.
+     *
+     * @return the number of lines
+     */
+    long getLines();
+
+    /**
+     * Returns the number of words read.
+     *
+     * @return the number of tokens
+     */
+    long getTokens();
+
+    /**
+     * Returns the number of distinct words of the last cloud.
+     *
+     * @return the number of distinct words
+     */
+    long getUniqueWords();
+
+    /**
+     * Returns the largest number of distinct words of any cloud.
+     *
+     * @return the peak number of distinct words
+     */
+    long getPeakWords();
+
+    /**
+     * Returns the number of input files counted.
+     *
+     * @return the number of files
+     */
+    long getFiles();
+
+    /**
+     * Returns the number of errors reported.
+     *
+     * @return the number of errors
+     */
+    long getErrors();
+
+    /**
+     * Returns an estimate of the bytes allocated on the heap since the
+     * counters were created, by the main thread and the worker threads alike,
+     * or -1 if the JVM cannot tell.
+     *
+     * @return the allocated bytes, or -1
+     */
+    long getAllocatedBytes();
+
+    /**
+     * Returns the counters as a JSON object.
+     *
+     * @return the JSON text
+     */
+    String getJson();
+
+}
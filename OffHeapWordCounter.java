@@ -0,0 +1,460 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Counts words like {@code WordCounter}, but keeps the whole dictionary in
+ * direct buffers outside the Java heap: the lowercased characters of every
+ * distinct word stored back to back in an arena, a record of hash, offset,
+ * length and count per word, and the hash slots. The garbage collector never
+ * scans or copies the dictionary, however many words it holds, and only the
+ * words finally shown are turned into {@code String}s, by {@code top}.
+ *
+ * <p>
+ * Direct memory is released when the counter itself is collected, so it
+ * should be dropped once {@code top} has been called. Direct memory is capped
+ * by {@code -XX:MaxDirectMemorySize}, not {@code -Xmx}.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class OffHeapWordCounter
+        implements TopWords.Counts, WordTokenizer.WordSink {
+
+    /**
+     * Initial number of hash slots; always a power of two.
+     */
+    private static final int INITIAL_SLOTS = 1 << 16;
+
+    /**
+     * Ints per word record: hash, offset, length and count.
+     */
+    private static final int RECORD = 4;
+
+    /**
+     * Position of the hash in a record.
+     */
+    private static final int HASH = 0;
+
+    /**
+     * Position of the arena offset in a record.
+     */
+    private static final int OFFSET = 1;
+
+    /**
+     * Position of the length in a record.
+     */
+    private static final int LENGTH = 2;
+
+    /**
+     * Position of the count in a record.
+     */
+    private static final int COUNT = 3;
+
+    /**
+     * Hash slots holding {@code id + 1}, or 0 when empty.
+     */
+    private IntBuffer slots;
+
+    /**
+     * One record per word, by id.
+     */
+    private IntBuffer records;
+
+    /**
+     * Characters of all distinct words, stored back to back.
+     */
+    private CharBuffer arena;
+
+    /**
+     * Number of characters used in {@code arena}.
+     */
+    private int arenaSize;
+
+    /**
+     * Number of distinct words.
+     */
+    private int size;
+
+    /**
+     * Sum of all counts.
+     */
+    private long total;
+
+    /**
+     * Creates an empty counter.
+     */
+    public OffHeapWordCounter() {
+        this.slots = ints(INITIAL_SLOTS);
+        this.records = ints(INITIAL_SLOTS / 2 * RECORD);
+        this.arena = chars(8 * INITIAL_SLOTS);
+    }
+
+    /**
+     * Returns a zeroed direct buffer of {@code n} ints.
+     *
+     * @param n
+     *            the number of ints
+     * @return the buffer
+     * @throws OutOfMemoryError
+     *             if the buffer would be larger than a direct buffer can be
+     */
+    private static IntBuffer ints(long n) {
+        return ByteBuffer.allocateDirect(bufferBytes(n, Integer.BYTES))
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    /**
+     * Returns a direct buffer of {@code n} chars.
+     *
+     * @param n
+     *            the number of chars
+     * @return the buffer
+     * @throws OutOfMemoryError
+     *             if the buffer would be larger than a direct buffer can be
+     */
+    private static CharBuffer chars(long n) {
+        return ByteBuffer.allocateDirect(bufferBytes(n, Character.BYTES))
+                .order(ByteOrder.nativeOrder()).asCharBuffer();
+    }
+
+    /**
+     * Returns the size in bytes of a buffer of {@code n} elements of
+     * {@code width} bytes, which a direct buffer, indexed by {@code int},
+     * must be able to hold.
+     *
+     * @param n
+     *            the number of elements
+     * @param width
+     *            the bytes of an element
+     * @return the size in bytes
+     * @throws OutOfMemoryError
+     *             if the size is more than {@code Integer.MAX_VALUE}
+     * @requires 0 <= n and 0 < width
+     */
+    private static int bufferBytes(long n, int width) {
+        long bytes = n * width;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError("The off-heap dictionary cannot grow "
+                    + "past " + Integer.MAX_VALUE + " bytes per buffer; "
+                    + "asked for " + bytes);
+        }
+        return (int) bytes;
+    }
+
+    /**
+     * Returns the hash of {@code chars[start, end)}, the same as
+     * {@code WordCounter} uses.
+     *
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @return the hash
+     */
+    private static int hash(char[] chars, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + chars[i];
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns field {@code field} of the record of word {@code id}.
+     *
+     * @param id
+     *            the word id
+     * @param field
+     *            the field position
+     * @return the field value
+     */
+    private int field(int id, int field) {
+        return this.records.get(id * RECORD + field);
+    }
+
+    /**
+     * Reports whether word {@code id} equals {@code chars[start, end)}.
+     *
+     * @param id
+     *            the word id
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @return true iff the word equals the range
+     */
+    private boolean matches(int id, char[] chars, int start, int end) {
+        int length = end - start;
+        if (this.field(id, LENGTH) != length) {
+            return false;
+        }
+        int offset = this.field(id, OFFSET);
+        for (int i = 0; i < length; i++) {
+            if (this.arena.get(offset + i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the slot holding {@code chars[start, end)}, or the empty slot
+     * where it would be inserted.
+     *
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param h
+     *            hash of the range
+     * @return the slot index
+     */
+    private int find(char[] chars, int start, int end, int h) {
+        int mask = this.slots.capacity() - 1;
+        int slot = h & mask;
+        int entry = this.slots.get(slot);
+        while (entry != 0) {
+            int id = entry - 1;
+            if (this.field(id, HASH) == h
+                    && this.matches(id, chars, start, end)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+            entry = this.slots.get(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the hash table and reinserts every id.
+     */
+    private void rehash() {
+        IntBuffer newSlots = ints(2L * this.slots.capacity());
+        int mask = newSlots.capacity() - 1;
+        for (int id = 0; id < this.size; id++) {
+            int slot = this.field(id, HASH) & mask;
+            while (newSlots.get(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots.put(slot, id + 1);
+        }
+        this.slots = newSlots;
+    }
+
+    /**
+     * Stores {@code chars[start, end)} as a new word and returns its id.
+     *
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param h
+     *            hash of the range
+     * @return the new id
+     */
+    private int store(char[] chars, int start, int end, int h) {
+        int id = this.size;
+        int base = id * RECORD;
+        if (base == this.records.capacity()) {
+            IntBuffer grown = ints(2L * this.records.capacity());
+            this.records.clear();
+            grown.put(this.records);
+            this.records = grown;
+        }
+        int length = end - start;
+        if (this.arenaSize + length > this.arena.capacity()) {
+            CharBuffer grown = chars(Math.max(2L * this.arena.capacity(),
+                    (long) this.arenaSize + length));
+            this.arena.position(0).limit(this.arenaSize);
+            grown.put(this.arena);
+            this.arena = grown;
+        }
+        this.arena.position(this.arenaSize);
+        this.arena.put(chars, start, length);
+        this.records.put(base + HASH, h);
+        this.records.put(base + OFFSET, this.arenaSize);
+        this.records.put(base + LENGTH, length);
+        this.records.put(base + COUNT, 0);
+        this.arenaSize += length;
+        this.size++;
+        return id;
+    }
+
+    /**
+     * Adds {@code delta} to the count of the word {@code chars[start, end)},
+     * adding the word first if it is new.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param delta
+     *            the amount to add
+     * @return the id of the word
+     * @updates this
+     * @requires 0 <= start <= end <= |chars|
+     */
+    public int add(char[] chars, int start, int end, int delta) {
+        assert chars != null : "Violation of: chars is not null";
+        assert 0 <= start : "Violation of: 0 <= start";
+        assert start <= end : "Violation of: start <= end";
+        assert end <= chars.length : "Violation of: end <= |chars|";
+
+        int h = hash(chars, start, end);
+        int slot = this.find(chars, start, end, h);
+        int entry = this.slots.get(slot);
+        int id;
+        if (entry != 0) {
+            id = entry - 1;
+        } else {
+            id = this.store(chars, start, end, h);
+            this.slots.put(slot, id + 1);
+            //Keeps the table at most half full so probe chains stay short
+            if (2 * this.size > this.slots.capacity()) {
+                this.rehash();
+            }
+        }
+        int index = id * RECORD + COUNT;
+        this.records.put(index, this.records.get(index) + delta);
+        this.total += delta;
+        return id;
+    }
+
+    /**
+     * Counts one occurrence of the word {@code chars[start, end)}.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @updates this
+     * @requires 0 <= start <= end <= |chars|
+     */
+    @Override
+    public void word(char[] chars, int start, int end) {
+        this.add(chars, start, end, 1);
+    }
+
+    /**
+     * Returns the number of distinct words.
+     *
+     * @return the number of distinct words
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the sum of all counts.
+     *
+     * @return the total count
+     */
+    public long total() {
+        return this.total;
+    }
+
+    /**
+     * Returns the count of word {@code id}.
+     *
+     * @param id
+     *            the word id
+     * @return the count
+     * @requires 0 <= id < size()
+     */
+    @Override
+    public int count(int id) {
+        assert 0 <= id && id < this.size : "Violation of: id is valid";
+
+        return this.field(id, COUNT);
+    }
+
+    /**
+     * Returns word {@code id} as a {@code String}.
+     *
+     * @param id
+     *            the word id
+     * @return the word
+     * @requires 0 <= id < size()
+     */
+    public String word(int id) {
+        assert 0 <= id && id < this.size : "Violation of: id is valid";
+
+        char[] word = new char[this.field(id, LENGTH)];
+        this.arena.get(this.field(id, OFFSET), word, 0, word.length);
+        return new String(word);
+    }
+
+    /**
+     * Compares words {@code a} and {@code b} in the same order as
+     * {@code String.compareTo}.
+     *
+     * @param a
+     *            the first word id
+     * @param b
+     *            the second word id
+     * @return negative, zero or positive as word {@code a} is less than, equal
+     *         to or greater than word {@code b}
+     * @requires 0 <= a < size() and 0 <= b < size()
+     */
+    @Override
+    public int compareWords(int a, int b) {
+        int offsetA = this.field(a, OFFSET);
+        int offsetB = this.field(b, OFFSET);
+        int lengthA = this.field(a, LENGTH);
+        int lengthB = this.field(b, LENGTH);
+        int length = Math.min(lengthA, lengthB);
+        for (int i = 0; i < length; i++) {
+            char chA = this.arena.get(offsetA + i);
+            char chB = this.arena.get(offsetB + i);
+            if (chA != chB) {
+                return chA - chB;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    /**
+     * Returns the {@code k} highest-ranked words, as ranked by
+     * {@code TopWords}, with their counts, in an ordinary
+     * {@code WordCounter}; only these words are copied onto the heap.
+     *
+     * @param k
+     *            number of words to select
+     * @return the selected words and counts
+     * @requires 0 <= k
+     */
+    public WordCounter top(int k) {
+        assert 0 <= k : "Violation of: 0 <= k";
+
+        WordCounter result = new WordCounter();
+        char[] word = new char[64];
+        for (int id : TopWords.select(this, k)) {
+            int offset = this.field(id, OFFSET);
+            int length = this.field(id, LENGTH);
+            if (length > word.length) {
+                word = new char[Math.max(length, 2 * word.length)];
+            }
+            this.arena.get(offset, word, 0, length);
+            result.add(word, 0, length, this.field(id, COUNT));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,233 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Counts the words of a character stream on a {@code ForkJoinPool}. The input
+ * is read into line-aligned chunks; each chunk is tokenized and counted by a
+ * pool thread into that thread's own {@code WordCounter}, and the per-thread
+ * counters are merged once all chunks are done. Since no word spans a
+ * separator, the counts are exactly those of the sequential path. If counting
+ * a chunk fails, reading stops and the failure is thrown from {@code count},
+ * so no chunk's words are ever silently missing.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class ParallelCounter {
+
+    /**
+     * Number of characters read into each chunk.
+     */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Counts one chunk and hands its buffer back for reuse.
+     */
+    private static final class ChunkTask implements Runnable {
+
+        /**
+         * The shared state of the count.
+         */
+        private final ParallelCounter owner;
+
+        /**
+         * The chunk buffer.
+         */
+        private final char[] chunk;
+
+        /**
+         * Number of characters used in {@code chunk}.
+         */
+        private final int length;
+
+        /**
+         * Creates a task counting {@code chunk[0, length)}.
+         *
+         * @param owner
+         *            the shared state of the count
+         * @param chunk
+         *            the chunk buffer
+         * @param length
+         *            number of characters used in {@code chunk}
+         */
+        ChunkTask(ParallelCounter owner, char[] chunk, int length) {
+            this.owner = owner;
+            this.chunk = chunk;
+            this.length = length;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.owner.tokenizer.tokenize(this.chunk, 0, this.length,
+                        this.owner.sinks.get());
+            } catch (RuntimeException | Error e) {
+                //The pool drops what a task throws; keeps the first failure
+                //for count to rethrow
+                this.owner.failure.compareAndSet(null, e);
+            } finally {
+                this.owner.free.add(this.chunk);
+            }
+        }
+    }
+
+    /**
+     * Tokenizer shared by every worker.
+     */
+    private final WordTokenizer tokenizer;
+
+    /**
+     * Counter of each worker thread, in creation order.
+     */
+    private final List<WordCounter> counters = new CopyOnWriteArrayList<>();
+
+    /**
+     * Sink of each worker thread, created on first use.
+     */
+    private final ThreadLocal<TagCloud10.CounterSink> sinks;
+
+    /**
+     * Chunk buffers not currently being read into or counted; bounds the
+     * memory in flight.
+     */
+    private final BlockingQueue<char[]> free;
+
+    /**
+     * The first failure of a worker, or null if none failed.
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Creates the shared state for one parallel count.
+     *
+     * @param tokenizer
+     *            the tokenizer to split the input with
+     * @param threads
+     *            the number of worker threads
+     */
+    private ParallelCounter(WordTokenizer tokenizer, int threads) {
+        this.tokenizer = tokenizer;
+        this.sinks = ThreadLocal.withInitial(() -> {
+            WordCounter counter = new WordCounter();
+            this.counters.add(counter);
+            return new TagCloud10.CounterSink(counter);
+        });
+        //One buffer per worker plus one being filled by the reader
+        this.free = new ArrayBlockingQueue<>(threads + 1);
+        for (int i = 0; i <= threads; i++) {
+            this.free.add(new char[CHUNK_SIZE]);
+        }
+    }
+
+    /**
+     * Returns the index just past the last line break in
+     * {@code chunk[0, length)}, falling back to the last separator, or 0 if
+     * there is neither.
+     *
+     * @param tokenizer
+     *            the tokenizer the input is split with
+     * @param chunk
+     *            the chunk buffer
+     * @param length
+     *            number of characters used in {@code chunk}
+     * @return the split point
+     */
+    private static int splitPoint(WordTokenizer tokenizer, char[] chunk,
+            int length) {
+        int i = length;
+        while (i > 0 && chunk[i - 1] != '\n' && chunk[i - 1] != '\r') {
+            i--;
+        }
+        if (i == 0) {
+            i = length;
+            while (i > 0 && !tokenizer.isSeparator(chunk[i - 1])) {
+                i--;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Reads {@code input} to the end and returns the counts of its words,
+     * lowercased, using {@code threads} worker threads.
+     *
+     * @param input
+     *            the input stream
+     * @param tokenizer
+     *            the tokenizer to split the input with
+     * @param threads
+     *            the number of worker threads
+     * @return the word counts
+     * @throws IOException
+     *             if reading {@code input} or counting a chunk fails
+     * @requires 0 < threads
+     */
+    public static WordCounter count(Reader input, WordTokenizer tokenizer,
+            int threads) throws IOException {
+        assert input != null : "Violation of: input is not null";
+        assert tokenizer != null : "Violation of: tokenizer is not null";
+        assert 0 < threads : "Violation of: 0 < threads";
+
+        ParallelCounter state = new ParallelCounter(tokenizer, threads);
+        ForkJoinPool pool = Metrics.forkJoinPool(threads);
+        try {
+            char[] chunk = state.free.take();
+            int length = 0;
+            int read = 0;
+            while (read >= 0 && state.failure.get() == null) {
+                read = input.read(chunk, length, chunk.length - length);
+                if (read > 0) {
+                    length += read;
+                }
+                if (length == chunk.length || (read < 0 && length > 0)) {
+                    int split = length;
+                    if (read >= 0) {
+                        split = splitPoint(tokenizer, chunk, length);
+                    }
+                    if (split == 0) {
+                        //A single word fills the chunk; grows it instead
+                        chunk = Arrays.copyOf(chunk, chunk.length * 2);
+                    } else {
+                        //Carries the incomplete line over to the next chunk
+                        char[] next = state.free.take();
+                        if (next.length < chunk.length) {
+                            next = new char[chunk.length];
+                        }
+                        System.arraycopy(chunk, split, next, 0,
+                                length - split);
+                        pool.execute(new ChunkTask(state, chunk, split));
+                        chunk = next;
+                        length -= split;
+                    }
+                }
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while counting", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        Throwable failure = state.failure.get();
+        if (failure != null) {
+            throw new IOException("Counting a chunk failed: " + failure,
+                    failure);
+        }
+
+        WordCounter result = new WordCounter();
+        for (WordCounter counter : state.counters) {
+            result.addAll(counter);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,464 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Counts the phrases of {@code n} consecutive words of a file, for clouds of
+ * bigrams or trigrams such as "connection reset". Each word is hashed to 64
+ * bits once and the hash of every phrase is rolled from the previous one, so
+ * the first pass counts phrases by hash alone, without copying a word or
+ * creating a {@code String}. The phrases with the highest counts are then
+ * counted again, exactly, in a second pass that builds the text of just those
+ * phrases; a hash collision therefore never shows a wrong phrase or count,
+ * and at worst could have displaced a phrase of the cloud, which the extra
+ * candidates kept make vanishingly unlikely.
+ *
+ * <p>
+ * Phrases do not span lines. Words are folded and filtered as they are for
+ * word clouds, and a dropped word, such as a stop word, ends the phrase
+ * before it like a line break, so no phrase joins the words around it.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class PhraseCounter {
+
+    /**
+     * Counts by 64-bit key in an open-addressing table. Its slots are the ids
+     * of {@code TopWords.Counts}, empty slots counting zero.
+     */
+    private static final class LongCounts implements TopWords.Counts {
+
+        /**
+         * The key of each slot, 0 for an empty slot.
+         */
+        private long[] keys;
+
+        /**
+         * The count of each slot.
+         */
+        private int[] counts;
+
+        /**
+         * Number of keys.
+         */
+        private int size;
+
+        /**
+         * Creates an empty table.
+         */
+        LongCounts() {
+            final int initialSlots = 1 << 12;
+            this.keys = new long[initialSlots];
+            this.counts = new int[initialSlots];
+        }
+
+        /**
+         * Returns the slot holding {@code key}, or the empty slot where it
+         * would go.
+         *
+         * @param key
+         *            a non-zero key
+         * @return the slot
+         */
+        private int find(long key) {
+            int mask = this.keys.length - 1;
+            int slot = (int) (key ^ (key >>> 32)) & mask;
+            while (this.keys[slot] != 0 && this.keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Adds {@code delta} to the count of {@code key}.
+         *
+         * @param key
+         *            a non-zero key
+         * @param delta
+         *            the amount to add
+         */
+        void add(long key, int delta) {
+            int slot = this.find(key);
+            if (this.keys[slot] == 0) {
+                this.keys[slot] = key;
+                this.size++;
+                //Keeps the table at most half full so probe chains stay short
+                if (2 * this.size > this.keys.length) {
+                    this.rehash();
+                    slot = this.find(key);
+                }
+            }
+            this.counts[slot] += delta;
+        }
+
+        /**
+         * Reports whether {@code key} is in the table.
+         *
+         * @param key
+         *            a non-zero key
+         * @return true iff the table holds {@code key}
+         */
+        boolean contains(long key) {
+            return this.keys[this.find(key)] == key;
+        }
+
+        /**
+         * Returns the key of slot {@code id}.
+         *
+         * @param id
+         *            the slot
+         * @return the key, or 0 if the slot is empty
+         */
+        long key(int id) {
+            return this.keys[id];
+        }
+
+        /**
+         * Doubles the table and reinserts every key.
+         */
+        private void rehash() {
+            long[] oldKeys = this.keys;
+            int[] oldCounts = this.counts;
+            this.keys = new long[2 * oldKeys.length];
+            this.counts = new int[2 * oldKeys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = this.find(oldKeys[i]);
+                    this.keys[slot] = oldKeys[i];
+                    this.counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return this.keys.length;
+        }
+
+        @Override
+        public int count(int id) {
+            return this.counts[id];
+        }
+
+        @Override
+        public int compareWords(int a, int b) {
+            return Long.compare(this.keys[a], this.keys[b]);
+        }
+    }
+
+    /**
+     * Multiplier of the rolling hash.
+     */
+    private static final long BASE = 0x100000001B3L;
+
+    /**
+     * Number of words in a phrase.
+     */
+    private final int n;
+
+    /**
+     * Splits lines into words.
+     */
+    private final WordTokenizer tokenizer;
+
+    /**
+     * {@code BASE} to the power {@code n}, to remove the oldest word from a
+     * rolling hash.
+     */
+    private final long basePower;
+
+    /**
+     * Hashes of the last {@code n} words, in a ring.
+     */
+    private final long[] wordHashes;
+
+    /**
+     * Characters of the last {@code n} words, in a ring; kept in the second
+     * pass only.
+     */
+    private final char[][] words;
+
+    /**
+     * Lengths of the last {@code n} words, in a ring.
+     */
+    private final int[] lengths;
+
+    /**
+     * Position of the oldest word in the rings.
+     */
+    private int oldest;
+
+    /**
+     * Number of words of the current line seen so far, up to {@code n}.
+     */
+    private int filled;
+
+    /**
+     * Rolling hash of the last {@code n} words.
+     */
+    private long hash;
+
+    /**
+     * Phrase counts by hash in the first pass.
+     */
+    private LongCounts hashCounts;
+
+    /**
+     * Hashes of the phrases counted exactly in the second pass, or null in
+     * the first pass.
+     */
+    private LongCounts candidates;
+
+    /**
+     * Exact counts of the candidate phrases.
+     */
+    private WordCounter phrases;
+
+    /**
+     * Holds the text of a candidate phrase.
+     */
+    private char[] phrase = new char[64];
+
+    /**
+     * Number of lines of the input, counted in the first pass.
+     */
+    private long lines;
+
+    /**
+     * Number of words of the input, counted in the first pass.
+     */
+    private long tokens;
+
+    /**
+     * Creates a counter of phrases of {@code n} words split by
+     * {@code tokenizer}.
+     *
+     * @param tokenizer
+     *            the tokenizer deciding which characters are separators
+     * @param n
+     *            the number of words in a phrase
+     * @requires 1 <= n
+     */
+    public PhraseCounter(WordTokenizer tokenizer, int n) {
+        assert tokenizer != null : "Violation of: tokenizer is not null";
+        assert 1 <= n : "Violation of: 1 <= n";
+
+        this.tokenizer = tokenizer;
+        this.n = n;
+        long power = 1;
+        for (int i = 0; i < n; i++) {
+            power *= BASE;
+        }
+        this.basePower = power;
+        this.wordHashes = new long[n];
+        this.words = new char[n][16];
+        this.lengths = new int[n];
+    }
+
+    /**
+     * Returns the 64-bit hash of {@code chars[start, end)}.
+     *
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @return the hash
+     */
+    private static long hash(char[] chars, int start, int end) {
+        long h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + chars[i];
+        }
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * Returns the table key of the phrase with rolling hash {@code h}: its
+     * bits mixed so that nearby hashes spread over the table, and never 0.
+     *
+     * @param h
+     *            the rolling hash
+     * @return the key
+     */
+    private static long key(long h) {
+        long k = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        if (k == 0) {
+            k = 1;
+        }
+        return k;
+    }
+
+    /**
+     * Adds the word {@code chars[start, end)} to the current phrase and
+     * counts the phrase once it has {@code n} words.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     */
+    private void word(char[] chars, int start, int end) {
+        if (this.candidates == null) {
+            this.tokens++;
+        }
+        long w = hash(chars, start, end);
+        this.hash = this.hash * BASE + w;
+        if (this.filled == this.n) {
+            this.hash -= this.wordHashes[this.oldest] * this.basePower;
+        } else {
+            this.filled++;
+        }
+        this.wordHashes[this.oldest] = w;
+        if (this.candidates != null) {
+            int length = end - start;
+            if (this.words[this.oldest].length < length) {
+                this.words[this.oldest] = new char[Math.max(length,
+                        2 * this.words[this.oldest].length)];
+            }
+            System.arraycopy(chars, start, this.words[this.oldest], 0,
+                    length);
+            this.lengths[this.oldest] = length;
+        }
+        this.oldest = (this.oldest + 1) % this.n;
+
+        if (this.filled == this.n) {
+            long k = key(this.hash);
+            if (this.candidates == null) {
+                this.hashCounts.add(k, 1);
+            } else if (this.candidates.contains(k)) {
+                this.countPhrase();
+            }
+        }
+    }
+
+    /**
+     * Starts a new phrase, at a line break or a dropped word.
+     */
+    private void breakPhrase() {
+        this.filled = 0;
+        this.hash = 0;
+    }
+
+    /**
+     * Counts the text of the last {@code n} words, separated by spaces, in
+     * {@code phrases}.
+     */
+    private void countPhrase() {
+        int length = this.n - 1;
+        for (int i = 0; i < this.n; i++) {
+            length += this.lengths[i];
+        }
+        if (this.phrase.length < length) {
+            this.phrase = new char[Math.max(length, 2 * this.phrase.length)];
+        }
+        int p = 0;
+        for (int i = 0; i < this.n; i++) {
+            int w = (this.oldest + i) % this.n;
+            if (i > 0) {
+                this.phrase[p] = ' ';
+                p++;
+            }
+            System.arraycopy(this.words[w], 0, this.phrase, p,
+                    this.lengths[w]);
+            p += this.lengths[w];
+        }
+        this.phrases.add(this.phrase, 0, length, 1);
+    }
+
+    /**
+     * Reads the file {@code input} once, reporting the words of each line to
+     * this counter, folded and filtered as {@code TagCloud10} counts words.
+     *
+     * @param input
+     *            the input file name
+     * @return the number of lines read
+     * @throws IOException
+     *             if reading the input fails
+     */
+    private long pass(String input) throws IOException {
+        TagCloud10.CounterSink sink = new TagCloud10.CounterSink(this::word,
+                (chars, start, end) -> this.breakPhrase());
+        long lines = 0;
+        try (BufferedReader in = new BufferedReader(
+                StreamTextReader.open(input))) {
+            String line = in.readLine();
+            while (line != null) {
+                char[] chars = line.toCharArray();
+                this.tokenizer.tokenize(chars, 0, chars.length, sink);
+                this.breakPhrase();
+                lines++;
+                line = in.readLine();
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Counts the phrases of the file {@code input} and returns the exact
+     * counts of at least the {@code wordNum} most frequent ones. The file is
+     * read twice, so it cannot be standard input.
+     *
+     * @param input
+     *            the input file name; may be a gzip file
+     * @param wordNum
+     *            the number of phrases in the cloud
+     * @return the most frequent phrases, words separated by a space, and
+     *         their counts
+     * @throws IOException
+     *             if reading the input fails
+     * @requires 0 <= wordNum
+     */
+    public WordCounter count(String input, int wordNum) throws IOException {
+        assert input != null : "Violation of: input is not null";
+        assert 0 <= wordNum : "Violation of: 0 <= wordNum";
+
+        //Counts twice as many candidates as shown, plus a margin, so a
+        //colliding hash cannot push a phrase of the cloud out
+        final int margin = 16;
+        this.hashCounts = new LongCounts();
+        this.candidates = null;
+        this.tokens = 0;
+        this.lines = this.pass(input);
+
+        int[] top = TopWords.select(this.hashCounts,
+                (int) Math.min(Integer.MAX_VALUE, 2L * wordNum + margin));
+        this.candidates = new LongCounts();
+        for (int id : top) {
+            if (this.hashCounts.count(id) > 0) {
+                this.candidates.add(this.hashCounts.key(id), 0);
+            }
+        }
+        this.hashCounts = null;
+        this.phrases = new WordCounter();
+        this.pass(input);
+        this.candidates = null;
+        return this.phrases;
+    }
+
+    /**
+     * Returns the number of lines of the input last counted.
+     *
+     * @return the number of lines
+     */
+    public long lines() {
+        return this.lines;
+    }
+
+    /**
+     * Returns the number of words of the input last counted, each counted
+     * once although the input is read twice.
+     *
+     * @return the number of words
+     */
+    public long tokens() {
+        return this.tokens;
+    }
+
+}
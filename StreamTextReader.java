@@ -0,0 +1,146 @@
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tokenizes a character stream of any length, such as standard input or a
+ * decompressed gzip file, in large chunks read into one reusable buffer. A
+ * word cut off at the end of a chunk is moved to the start of the buffer and
+ * completed by the next read, so the words are exactly those of reading the
+ * stream line by line, while the memory used is one buffer, however long the
+ * stream or its lines.
+ *
+ * <p>
+ * The buffer is owned by the reader, so a {@code StreamTextReader} must not be
+ * shared between threads.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class StreamTextReader {
+
+    /**
+     * Name standing for standard input.
+     */
+    public static final String STDIN = "-";
+
+    /**
+     * Initial number of characters read at once.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Size of the buffer of compressed bytes.
+     */
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Tokenizer deciding which characters are separators.
+     */
+    private final WordTokenizer tokenizer;
+
+    /**
+     * The chunk buffer; grows only for a word longer than itself.
+     */
+    private char[] chunk = new char[CHUNK_SIZE];
+
+    /**
+     * Creates a reader splitting words with {@code tokenizer}.
+     *
+     * @param tokenizer
+     *            the tokenizer deciding which characters are separators
+     */
+    public StreamTextReader(WordTokenizer tokenizer) {
+        assert tokenizer != null : "Violation of: tokenizer is not null";
+
+        this.tokenizer = tokenizer;
+    }
+
+    /**
+     * Reports whether {@code name} is read as a stream rather than a regular
+     * file: standard input or a gzip file.
+     *
+     * @param name
+     *            the input name
+     * @return true iff {@code name} is {@code STDIN} or ends in {@code .gz}
+     */
+    public static boolean isStream(String name) {
+        assert name != null : "Violation of: name is not null";
+
+        return name.equals(STDIN) || name.endsWith(".gz");
+    }
+
+    /**
+     * Opens the input named {@code name} as characters in the default
+     * charset, as {@code FileReader} would: standard input for
+     * {@code STDIN}, a decompressing stream for a name ending in {@code .gz}
+     * and the plain file otherwise. Closing the reader of standard input
+     * closes standard input.
+     *
+     * @param name
+     *            the input name
+     * @return the opened reader
+     * @throws IOException
+     *             if the file cannot be opened or is not in gzip format
+     */
+    public static Reader open(String name) throws IOException {
+        assert name != null : "Violation of: name is not null";
+
+        InputStream in;
+        if (name.equals(STDIN)) {
+            in = System.in;
+        } else if (name.endsWith(".gz")) {
+            in = new GZIPInputStream(new FileInputStream(name),
+                    GZIP_BUFFER_SIZE);
+        } else {
+            in = new BufferedInputStream(new FileInputStream(name));
+        }
+        return new InputStreamReader(in);
+    }
+
+    /**
+     * Reads {@code input} to the end and reports each of its words to
+     * {@code sink}.
+     *
+     * @param input
+     *            the input stream
+     * @param sink
+     *            receives each word
+     * @throws IOException
+     *             if reading {@code input} fails
+     */
+    public void tokenize(Reader input, WordTokenizer.WordSink sink)
+            throws IOException {
+        assert input != null : "Violation of: input is not null";
+        assert sink != null : "Violation of: sink is not null";
+
+        int length = 0;
+        int read = input.read(this.chunk, 0, this.chunk.length);
+        while (read >= 0) {
+            length += read;
+            //Keeps back the characters after the last separator, which may
+            //be the start of a word continued by the next read
+            int split = length;
+            while (split > 0 && !this.tokenizer.isSeparator(this.chunk[split
+                    - 1])) {
+                split--;
+            }
+            this.tokenizer.tokenize(this.chunk, 0, split, sink);
+            length -= split;
+            System.arraycopy(this.chunk, split, this.chunk, 0, length);
+            if (length == this.chunk.length) {
+                //A single word fills the buffer
+                this.chunk = Arrays.copyOf(this.chunk, 2 * length);
+            }
+            read = input.read(this.chunk, length, this.chunk.length - length);
+        }
+        this.tokenizer.tokenize(this.chunk, 0, length, sink);
+    }
+
+}
@@ -1,21 +1,31 @@
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+import javax.management.JMException;
+
 /**
  * This program will take a file as input and create a tagCloud that changes
  * font relative to the count of each word.
@@ -26,27 +36,63 @@ import java.util.TreeMap;
 public final class TagCloud10 {
 
     /**
-     * Compare {@code String}s in lexicographic order.
+     * Characters that separate words in the input, unless a separator file
+     * is given.
+     */
+    private static final String SEPARATORS = " \"\t\n\r,-.!?';:/()*_\\[]{}"
+            + "|<>~=";
+
+    /**
+     * Line breaks, which always separate words.
+     */
+    private static final String LINE_BREAKS = "\n\r";
+
+    /**
+     * Characters that separate words; set once by {@code main} before any
+     * word is counted.
+     */
+    private static String separators = SEPARATORS;
+
+    /**
+     * Tokenizer for {@code separators}; its lookup table is built once and
+     * shared by every call.
+     */
+    private static WordTokenizer tokenizer = new WordTokenizer(SEPARATORS);
+
+    /**
+     * Drops the words that are not counted; set once by {@code main} before
+     * any word is counted.
+     */
+    private static WordFilter wordFilter = WordFilter.NONE;
+
+    /**
+     * Compare {@code String}s in lexicographic order. Words are folded to
+     * lowercase when they are counted, so they are compared as they are.
      */
     private static class StringLT implements Comparator<String> {
         @Override
         public int compare(String o1, String o2) {
 
-            return o1.compareToIgnoreCase(o2);
+            return o1.compareTo(o2);
         }
     }
 
     /**
-     * Compare {@code Integer}s in descending order.
+     * Locale whose case rules fold words to lowercase; set once by
+     * {@code main} before any word is counted.
      */
-    private static class IntegerLT
-            implements Comparator<Map.Entry<String, Integer>> {
-        @Override
-        public int compare(Map.Entry<String, Integer> o1,
-                Map.Entry<String, Integer> o2) {
-            return o2.getValue().compareTo(o1.getValue());
-        }
-    }
+    private static Locale foldLocale = Locale.getDefault();
+
+    /**
+     * How counts are spread over the font sizes; set once by {@code main}
+     * before any cloud is rendered.
+     */
+    private static FontScale.Curve fontCurve = FontScale.Curve.LINEAR;
+
+    /**
+     * Run-time counters of every stage.
+     */
+    private static final Metrics METRICS = Metrics.global();
 
     /**
      * Private constructor so this utility class cannot be instantiated.
@@ -185,7 +231,8 @@ public final class TagCloud10 {
         //Printing header tags for the index html file
         out.println("<html>");
         out.println("<head>");
-        out.println("<title> Words Counted in " + fileName + " </title>");
+        String name = CloudRenderer.escape(fileName);
+        out.println("<title> Words Counted in " + name + " </title>");
         out.println(
                 "<link href=\"http://web.cse.ohio-state.edu/software/2231/web-sw2"
                         + "/assignments/projects/tag-cloud-generator/data/tagcloud.css\" "
@@ -195,7 +242,7 @@ public final class TagCloud10 {
 
         out.println("</head>");
         out.println("<body>");
-        out.println("    <h2> Words Counted in " + fileName + " </h2>");
+        out.println("    <h2> Words Counted in " + name + " </h2>");
         out.println("    <hr/>");
 
         out.println("    <div class=\"cdiv\">");
@@ -229,9 +276,186 @@ public final class TagCloud10 {
         return num;
     }
 
+    /**
+     * Adds each word of a {@code char} range that passes {@code wordFilter}
+     * to a word map, lowercased.
+     */
+    static final class MapSink implements WordTokenizer.WordSink {
+
+        /**
+         * The map receiving the words.
+         */
+        private final SortedMap<String, Integer> wordMap;
+
+        /**
+         * Lowercases each word before it is added.
+         */
+        private final CaseFolder folder = new CaseFolder(foldLocale);
+
+        /**
+         * Adds each lowercased word to {@code wordMap}.
+         */
+        private final WordTokenizer.WordSink adder;
+
+        /**
+         * Creates a sink adding words to {@code wordMap}.
+         *
+         * @param wordMap
+         *            the map to update
+         */
+        MapSink(SortedMap<String, Integer> wordMap) {
+            this.wordMap = wordMap;
+            this.adder = wordFilter.sink((chars, start, end) -> {
+                String wordLower = new String(chars, start, end - start);
+                this.wordMap.put(wordLower,
+                        wordCount(wordLower, this.wordMap));
+            });
+        }
+
+        @Override
+        public void word(char[] chars, int start, int end) {
+            this.folder.fold(chars, start, end, this.adder);
+        }
+    }
+
+    /**
+     * If a file is inputed, each word of its next line will be added to a map
+     * with the number of occurrence. The line is scanned once by
+     * {@code WordTokenizer}; see {@code getWordBySeparatorScan} for the
+     * original implementation based on {@code nextWordOrSeparator}.
+     *
+     * @param input
+     *            the input stream
+     * @param wordMap
+     *            map to add the words and the count
+     * @updates input, wordMap
+     * @requires <pre>
+     * input.isOpen()
+     * </pre>
+     * @ensures <pre>
+     * input.is_open and
+     *
+     * wordMap = #wordMap + (words of the next line of input, count)
+     * </pre>
+     */
+    public static void getWord(BufferedReader input,
+            SortedMap<String, Integer> wordMap) {
+        assert input != null : "Violation of: input is not null";
+        assert wordMap != null : "Violation of: terms is not null";
+
+        try {
+            getWord(input, new MapSink(wordMap));
+        } catch (IOException e) {
+            System.err.println("Error reading file.");
+        }
+    }
+
+    /**
+     * Reads the next line of {@code input}, if any, and passes each of its
+     * words to {@code sink}, usually a {@code CounterSink} or
+     * {@code MapSink}. A caller counting many lines makes one sink for all of
+     * them, so nothing outlives its loop.
+     *
+     * @param input
+     *            the input stream
+     * @param sink
+     *            receives the words of the line
+     * @throws IOException
+     *             if reading fails
+     * @updates input
+     * @requires input.isOpen()
+     */
+    static void getWord(BufferedReader input, WordTokenizer.WordSink sink)
+            throws IOException {
+        String line = input.readLine();
+        if (line != null) {
+            char[] chars = line.toCharArray();
+            tokenizer.tokenize(chars, 0, chars.length, sink);
+        }
+    }
+
+    /**
+     * Folds each word to lowercase with a {@code CaseFolder} and passes it
+     * on to a counter, a {@code WordCounter} or any other sink, if it passes
+     * {@code wordFilter}. A dropped word is never copied.
+     */
+    static final class CounterSink implements WordTokenizer.WordSink {
+
+        /**
+         * The sink receiving the lowercased words that pass the filter.
+         */
+        private final WordTokenizer.WordSink counter;
+
+        /**
+         * Lowercases each word, in place when it can.
+         */
+        private final CaseFolder folder = new CaseFolder(foldLocale);
+
+        /**
+         * Creates a sink counting words in {@code counter}.
+         *
+         * @param counter
+         *            the counter to update
+         */
+        CounterSink(WordTokenizer.WordSink counter) {
+            this.counter = wordFilter.sink(counter);
+        }
+
+        /**
+         * Creates a sink counting words in {@code counter} and passing the
+         * words the filter drops, lowercased, on to {@code dropped}.
+         *
+         * @param counter
+         *            the counter to update
+         * @param dropped
+         *            the sink receiving the dropped words
+         */
+        CounterSink(WordTokenizer.WordSink counter,
+                WordTokenizer.WordSink dropped) {
+            this.counter = wordFilter.sink(counter, dropped);
+        }
+
+        @Override
+        public void word(char[] chars, int start, int end) {
+            this.folder.fold(chars, start, end, this.counter);
+        }
+    }
+
+    /**
+     * If a file is inputed, each word of its next line will be counted,
+     * lowercased, in {@code counter}. No {@code String} is created for a word
+     * that has been counted before.
+     *
+     * @param input
+     *            the input stream
+     * @param counter
+     *            counter to add the words to
+     * @updates input, counter
+     * @requires <pre>
+     * input.isOpen()
+     * </pre>
+     * @ensures <pre>
+     * input.is_open and
+     *
+     * counter = #counter + (words of the next line of input, count)
+     * </pre>
+     */
+    public static void getWord(BufferedReader input, WordCounter counter) {
+        assert input != null : "Violation of: input is not null";
+        assert counter != null : "Violation of: counter is not null";
+
+        try {
+            getWord(input, new CounterSink(counter));
+        } catch (IOException e) {
+            System.err.println("Error reading file.");
+        }
+    }
+
     /**
      * If a file is inputed, each word in it will be added to a queue(no
-     * duplicates) and a map with the number of occurrence.
+     * duplicates) and a map with the number of occurrence. This is the
+     * original implementation, which rescans the line with
+     * {@code nextWordOrSeparator}; it is kept for compatibility.
      *
      * @param input
      *            the input stream
@@ -248,16 +472,13 @@ public final class TagCloud10 {
      * terms=(words, count)
      * </pre>
      */
-    public static void getWord(BufferedReader input,
+    public static void getWordBySeparatorScan(BufferedReader input,
             SortedMap<String, Integer> wordMap) {
         assert input != null : "Violation of: input is not null";
         assert wordMap != null : "Violation of: terms is not null";
 
-        //Define separator characters for testing
-        final String separatorStr = " \"\t\n\r,-.!?';:/()*_\\[]{}|<>~=";
-
         Set<Character> separatorSet = new HashSet<Character>();
-        generateElements(separatorStr, separatorSet);
+        generateElements(separators, separatorSet);
 
         //Checking whether the file end is not reached
         try {
@@ -313,14 +534,15 @@ public final class TagCloud10 {
 
     /**
      * Returns the font size for each word relative to the minimum and maximum
-     * count.
+     * count, in proportion to the count. Clouds look up their font sizes in a
+     * {@code FontScale} built once instead.
      *
      * @param max
      *            highest count
      * @param min
      *            lowest count
      * @param wordNum
-     *            number of words to include
+     *            the count of the word
      * @return font size
      */
     public static int fontSize(int max, int min, int wordNum) {
@@ -328,31 +550,10 @@ public final class TagCloud10 {
         assert 0 <= min : "Violation of: 0 <= min";
         assert 0 <= wordNum : "Violation of: 0 <= wordNum";
 
-        //defining the largest and smallest font size
-        final int largeFont = 48;
-        final int minFont = 11;
-        double d = 0;
-        int fontDiff = largeFont - minFont;
-
-        //To ensure that neither denominator or numerator become 0,
-        //this if-else statement is there.
-        if (max != min && min != wordNum) {
-            d = Math.ceil((fontDiff * (wordNum - min)) / (max - min));
-        } else if (max == min && min != wordNum) {
-            d = Math.ceil((fontDiff * (wordNum - min)));
-        } else if (min == wordNum && max != min) {
-            d = Math.ceil(fontDiff / (max - min));
-        } else {
-            d = fontDiff;
-        }
-
-        //changes double to int and adds minimum font so the font
-        //size not below zero
-        int i = (int) d;
-        int f = i + minFont;
-
-        return f;
-
+        //Computed in floating point so that only the highest count gets the
+        //largest font
+        return FontScale.compute(FontScale.Curve.LINEAR, Math.min(min, max),
+                max, wordNum);
     }
 
     /**
@@ -374,12 +575,14 @@ public final class TagCloud10 {
         assert out != null : "Violation of: out is not null";
         assert map2 != null : "Violation of: map2 is not null";
 
+        //Computes the font of every count once; each tag then looks it up
+        FontScale scale = new FontScale(fontCurve, Math.min(min, max), max);
         Set<Entry<String, Integer>> ent = map2.entrySet();
         //Takes the sorted list and writes the word in the specific frequency
         for (Entry<String, Integer> element : ent) {
-            String word = element.getKey();
+            String word = CloudRenderer.escape(element.getKey());
             int freq = element.getValue();
-            int font = fontSize(max, min, freq);
+            int font = scale.font(freq);
             out.println(" <span style=\"cursor:default\" class=\"f" + font
                     + "\" title=\"count: " + freq + "\">" + word + "</span>");
 
@@ -398,12 +601,12 @@ public final class TagCloud10 {
      * words. It will then sort the words in ascending order.
      *
      * @param wordMap
-     *            the {@code Set} to be replaced
+     *            the map of words and their counts
      * @param wordNum
      *            number of words to include
      * @param out
      *            the output stream
-     * @updates wordMap
+     * @updates out.content
      *
      */
 
@@ -414,50 +617,170 @@ public final class TagCloud10 {
         assert wordMap != null : "Violation of: wordMap is not null";
         assert 0 <= wordNum : "Violation of: 0 <= wordNum";
 
-        Comparator<String> cs = new StringLT();
-        //Creating sorting variable for words and their counts
-        SortedMap<String, Integer> map2 = new TreeMap<String, Integer>(cs);
+        WordCounter counter = new WordCounter();
+        for (Entry<String, Integer> entry : wordMap.entrySet()) {
+            counter.add(entry.getKey(), entry.getValue());
+        }
+        valueSort(counter, wordNum, out);
+    }
 
-        Comparator<Map.Entry<String, Integer>> ci = new IntegerLT();
+    /**
+     * Selects the {@code wordNum} most frequent words of {@code counter}, ties
+     * broken in lexicographic order, and outputs them in alphabetical order.
+     * Only the selected words are turned into {@code String}s.
+     *
+     * @param counter
+     *            the counted words
+     * @param wordNum
+     *            number of words to include
+     * @param out
+     *            the output stream
+     * @updates out.content
+     *
+     */
+    public static void valueSort(WordCounter counter, int wordNum,
+            PrintWriter out) {
 
-        List<Entry<String, Integer>> list = new ArrayList<>(wordMap.entrySet());
-        Collections.sort(list, ci);
-        int listSize = list.size();
+        assert out != null : "Violation of: out is not null";
+        assert counter != null : "Violation of: counter is not null";
+        assert 0 <= wordNum : "Violation of: 0 <= wordNum";
 
-        Map.Entry<String, Integer> maxPair = list.remove(0);
-        int max = maxPair.getValue();
-        map2.put(maxPair.getKey(), maxPair.getValue());
+        int[] ids = TopWords.select(counter, wordNum);
+        SortedMap<String, Integer> map2 = alphabetical(counter, ids);
 
-        //Checks if the requested number of words is more than the number
-        //of words in the file. if so, it will loop until the required number
-        // of elements are added to the new map. If not it will loop until
-        //the number of words present and add it to the map
-        if (listSize > wordNum) {
-            for (int i = 0; i < wordNum - 2; i++) {
-                Map.Entry<String, Integer> addPair = list.remove(0);
-                map2.put(addPair.getKey(), addPair.getValue());
-            }
-        } else {
-            for (int i = 0; i < listSize - 2; i++) {
-                Map.Entry<String, Integer> addPair = list.remove(0);
-                map2.put(addPair.getKey(), addPair.getValue());
-            }
+        //The first selected word has the highest count and the last one the
+        //lowest
+        int max = 0;
+        int min = 0;
+        if (ids.length > 0) {
+            max = counter.count(ids[0]);
+            min = counter.count(ids[ids.length - 1]);
         }
 
-        //Suppose only one word is in the file, the minimum and maximum
-        //value will be the same. If not, the minimum will be last element
-        //of the sorted list
-        int min = max;
-        if (list.size() > 0 && wordNum != 1) {
-            Map.Entry<String, Integer> minPair = list.remove(0);
-            min = minPair.getValue();
-            map2.put(minPair.getKey(), minPair.getValue());
+        outputTag(out, map2, max, min);
+
+    }
+
+    /**
+     * Returns the words {@code ids} of {@code counter} and their counts in
+     * alphabetic order.
+     *
+     * @param counter
+     *            the counted words
+     * @param ids
+     *            the selected word ids
+     * @return the selected words and counts, sorted alphabetically
+     */
+    private static SortedMap<String, Integer> alphabetical(
+            WordCounter counter, int[] ids) {
+        Comparator<String> cs = new StringLT();
+        SortedMap<String, Integer> map2 = new TreeMap<String, Integer>(cs);
+        for (int id : ids) {
+            map2.put(counter.word(id), counter.count(id));
         }
+        return map2;
+    }
 
-        //this will sort the words in alphabetic order
+    /**
+     * Renders the page of the tag cloud of the {@code wordNum} most frequent
+     * words of {@code counter} into {@code renderer}; the same page
+     * {@code indexFile} and {@code valueSort} print.
+     *
+     * @param counter
+     *            the counted words
+     * @param wordNum
+     *            number of words to include
+     * @param fileName
+     *            the input file name shown on the page
+     * @param renderer
+     *            the renderer to append the page to
+     * @updates renderer
+     */
+    public static void render(WordCounter counter, int wordNum,
+            String fileName, CloudRenderer renderer) {
+        assert 0 <= wordNum : "Violation of: 0 <= wordNum";
+        assert renderer != null : "Violation of: renderer is not null";
 
-        outputTag(out, map2, max, min);
+        render(counter, new int[] {wordNum}, fileName,
+                new CloudRenderer[] {renderer});
+    }
+
+    /**
+     * Renders the page of the tag cloud of the {@code wordNums[i]} most
+     * frequent words of {@code counter} into {@code renderers[i]}, for every
+     * {@code i}. The words are selected once, for the largest number, and
+     * sorted alphabetically once; every page is then rendered in one pass
+     * over the sorted words, a word going to each page whose number of words
+     * it ranks within. The smallest and largest count, and so the font sizes,
+     * are those of each page's own words.
+     *
+     * @param counter
+     *            the counted words
+     * @param wordNums
+     *            numbers of words to include
+     * @param fileName
+     *            the input file name shown on the pages
+     * @param renderers
+     *            the renderers to append the pages to
+     * @updates renderers
+     * @requires |wordNums| = |renderers| and every number is >= 0
+     */
+    public static void render(WordCounter counter, int[] wordNums,
+            String fileName, CloudRenderer[] renderers) {
+        assert counter != null : "Violation of: counter is not null";
+        assert wordNums != null : "Violation of: wordNums is not null";
+        assert fileName != null : "Violation of: fileName is not null";
+        assert renderers != null : "Violation of: renderers is not null";
+        assert wordNums.length == renderers.length : "Violation of: "
+                + "|wordNums| = |renderers|";
+
+        long start = METRICS.start();
+        int largest = 0;
+        for (int wordNum : wordNums) {
+            assert 0 <= wordNum : "Violation of: 0 <= wordNum";
+            largest = Math.max(largest, wordNum);
+        }
+        int[] ids = TopWords.select(counter, largest);
+        METRICS.words(counter.size());
+        METRICS.stop(Metrics.Stage.SELECT, start);
+        start = METRICS.start();
+
+        //The ids are ranked, so page i holds the first k ids: those ranking
+        //no lower than its last one
+        int pages = wordNums.length;
+        int[] last = new int[pages];
+        FontScale[] scales = new FontScale[pages];
+        for (int i = 0; i < pages; i++) {
+            int k = Math.min(wordNums[i], ids.length);
+            last[i] = -1;
+            int max = 0;
+            int min = 0;
+            if (k > 0) {
+                last[i] = ids[k - 1];
+                max = counter.count(ids[0]);
+                min = counter.count(last[i]);
+            }
+            scales[i] = new FontScale(fontCurve, min, max);
+            renderers[i].begin(fileName);
+        }
 
+        //Sorts the selected ids alphabetically without creating Strings
+        int[] sorted = ids.clone();
+        counter.sortWords(sorted);
+        for (int id : sorted) {
+            int freq = counter.count(id);
+            String word = counter.word(id);
+            for (int i = 0; i < pages; i++) {
+                if (last[i] == id || (last[i] >= 0
+                        && TopWords.ranksAhead(counter, id, last[i]))) {
+                    renderers[i].tag(word, freq, scales[i].font(freq));
+                }
+            }
+        }
+        for (CloudRenderer renderer : renderers) {
+            renderer.end();
+        }
+        METRICS.stop(Metrics.Stage.RENDER, start);
     }
 
     /**
@@ -509,12 +832,584 @@ public final class TagCloud10 {
     }
 
     /**
-     * Main method.
+     * Counts the words of one input file into {@code counter}, as selected by
+     * {@code options}: incrementally, memory-mapped, in parallel, in chunks
+     * for standard input and gzip files, or line by line.
      *
-     * @param args
-     *            the command line arguments
+     * @param file
+     *            the opened input file; unused when memory-mapping or counting
+     *            incrementally
+     * @param fileName
+     *            the input file name
+     * @param options
+     *            the command line options
+     * @param counter
+     *            the counter to add the words to
+     * @throws IOException
+     *             if reading the input fails
+     * @updates counter
      */
-    public static void main(String[] args) {
+    private static void count(BufferedReader file, String fileName,
+            TagCloudOptions options, WordCounter counter) throws IOException {
+        if (options.snapshot() != null) {
+            countIncrementally(fileName, options.snapshot(), counter);
+        } else if (options.mmap()) {
+            new MappedTextReader(tokenizer).tokenize(Paths.get(fileName),
+                    new CounterSink(counter));
+        } else if (options.threads() > 1) {
+            counter.addAll(
+                    ParallelCounter.count(file, tokenizer, options.threads()));
+        } else if (StreamTextReader.isStream(fileName)) {
+            new StreamTextReader(tokenizer).tokenize(file,
+                    new CounterSink(counter));
+        } else {
+            CounterSink sink = new CounterSink(counter);
+            long lines = 0;
+            while (file.ready()) {
+                getWord(file, sink);
+                lines++;
+            }
+            METRICS.lines(lines);
+        }
+    }
+
+    /**
+     * Generates the tag cloud of {@code wordNum} words of {@code input} into
+     * {@code output}, without prompting. {@code counter} and {@code renderer}
+     * are cleared and reused, so callers processing many files can keep their
+     * storage. The page is written as UTF-8 in a single write.
+     *
+     * @param input
+     *            the input file name
+     * @param output
+     *            the output HTML file name
+     * @param wordNum
+     *            number of words to include
+     * @param options
+     *            the command line options
+     * @param counter
+     *            scratch counter for the words of {@code input}
+     * @param renderer
+     *            scratch renderer for the page
+     * @throws IOException
+     *             if reading the input or writing the output fails
+     * @clears counter, renderer
+     */
+    public static void generate(String input, String output, int wordNum,
+            TagCloudOptions options, WordCounter counter,
+            CloudRenderer renderer) throws IOException {
+        assert input != null : "Violation of: input is not null";
+        assert output != null : "Violation of: output is not null";
+        assert 0 <= wordNum : "Violation of: 0 <= wordNum";
+
+        counter.clear();
+        countFile(input, options, counter);
+        writeCloud(counter, wordNum, input, output, renderer);
+        counter.clear();
+    }
+
+    /**
+     * Adds the words of the file {@code input} to {@code counter}, counting
+     * only what was appended to it since the state saved in {@code snapshot}.
+     *
+     * @param input
+     *            the input file name
+     * @param snapshot
+     *            the snapshot file name
+     * @param counter
+     *            the counter to add the words to
+     * @return the bytes read and words counted, not including those restored
+     *         from the snapshot
+     * @throws IOException
+     *             if reading the input or the snapshot fails
+     * @updates counter
+     */
+    private static IncrementalCounter.Progress countIncrementally(
+            String input, String snapshot, WordCounter counter)
+            throws IOException {
+        //The snapshot holds the counts of the input alone; words already in
+        //counter, loaded with --load, are added once it is saved
+        WordCounter incremental = counter;
+        if (counter.size() > 0) {
+            incremental = new WordCounter();
+        }
+        IncrementalCounter.Progress progress = IncrementalCounter.count(input,
+                snapshot, tokenizer, incremental);
+        if (incremental != counter) {
+            counter.addAll(incremental);
+        }
+        return progress;
+    }
+
+    /**
+     * Adds the words of the file {@code input} to {@code counter}, read as
+     * selected by {@code options}. {@code input} may also be
+     * {@code StreamTextReader.STDIN} or a gzip file.
+     *
+     * @param input
+     *            the input file name
+     * @param options
+     *            the command line options
+     * @param counter
+     *            the counter to add the words to
+     * @throws IOException
+     *             if reading the input fails
+     * @updates counter
+     */
+    public static void countFile(String input, TagCloudOptions options,
+            WordCounter counter) throws IOException {
+        assert input != null : "Violation of: input is not null";
+
+        long start = METRICS.start();
+        long before = counter.total();
+        long bytes;
+        long tokens;
+        if (options.snapshot() != null) {
+            //Only what was appended since the last run is read and counted
+            IncrementalCounter.Progress progress = countIncrementally(input,
+                    options.snapshot(), counter);
+            bytes = progress.bytes();
+            tokens = progress.tokens();
+        } else {
+            if (options.mmap()) {
+                count(null, input, options, counter);
+            } else {
+                try (BufferedReader file = new BufferedReader(
+                        StreamTextReader.open(input))) {
+                    count(file, input, options, counter);
+                }
+            }
+            bytes = inputSize(input);
+            tokens = counter.total() - before;
+        }
+        METRICS.stop(Metrics.Stage.COUNT, start);
+        METRICS.file(bytes);
+        METRICS.tokens(tokens);
+    }
+
+    /**
+     * Adds the words of {@code in}, read to the end in chunks, to
+     * {@code counter}.
+     *
+     * @param in
+     *            the text to count
+     * @param counter
+     *            the counter to add the words to
+     * @throws IOException
+     *             if reading {@code in} fails
+     * @updates counter
+     */
+    public static void countText(Reader in, WordCounter counter)
+            throws IOException {
+        assert in != null : "Violation of: in is not null";
+        assert counter != null : "Violation of: counter is not null";
+
+        long start = METRICS.start();
+        long before = counter.total();
+        new StreamTextReader(tokenizer).tokenize(in, new CounterSink(counter));
+        METRICS.stop(Metrics.Stage.COUNT, start);
+        METRICS.tokens(counter.total() - before);
+    }
+
+    /**
+     * Returns the size of the input file {@code input} in bytes, or -1 for
+     * standard input.
+     *
+     * @param input
+     *            the input file name
+     * @return the size, or -1
+     * @throws IOException
+     *             if the size cannot be read
+     */
+    private static long inputSize(String input) throws IOException {
+        long size = -1;
+        if (!input.equals(StreamTextReader.STDIN)) {
+            size = Files.size(Paths.get(input));
+        }
+        return size;
+    }
+
+    /**
+     * Writes the tag cloud of the {@code wordNum} most frequent words of
+     * {@code counter} to the file {@code output} as UTF-8, in a single write.
+     *
+     * @param counter
+     *            the counted words
+     * @param wordNum
+     *            number of words to include
+     * @param title
+     *            the name shown on the page
+     * @param output
+     *            the output HTML file name
+     * @param renderer
+     *            scratch renderer for the page
+     * @throws IOException
+     *             if writing the output fails
+     * @clears renderer
+     */
+    public static void writeCloud(WordCounter counter, int wordNum,
+            String title, String output, CloudRenderer renderer)
+            throws IOException {
+        assert output != null : "Violation of: output is not null";
+
+        renderer.reset();
+        render(counter, wordNum, title, renderer);
+        write(renderer, output);
+        renderer.reset();
+    }
+
+    /**
+     * Writes the page rendered by {@code renderer} to the file
+     * {@code output} in a single write.
+     *
+     * @param renderer
+     *            the rendered page
+     * @param output
+     *            the output HTML file name
+     * @throws IOException
+     *             if writing the output fails
+     */
+    private static void write(CloudRenderer renderer, String output)
+            throws IOException {
+        long start = METRICS.start();
+        try (FileChannel html = FileChannel.open(Paths.get(output),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            renderer.writeTo(html);
+        }
+        METRICS.stop(Metrics.Stage.WRITE, start);
+    }
+
+    /**
+     * Returns the name of the cloud of {@code wordNum} words when clouds of
+     * several sizes are written for {@code output}: {@code -wordNum} inserted
+     * before the extension, so {@code cloud.html} becomes
+     * {@code cloud-100.html}.
+     *
+     * @param output
+     *            the output HTML file name given
+     * @param wordNum
+     *            number of words of the cloud
+     * @return the file name of the cloud
+     */
+    public static String outputName(String output, int wordNum) {
+        assert output != null : "Violation of: output is not null";
+
+        int dot = output.lastIndexOf('.');
+        if (dot <= output.lastIndexOf(File.separatorChar) + 1) {
+            dot = output.length();
+        }
+        return output.substring(0, dot) + "-" + wordNum
+                + output.substring(dot);
+    }
+
+    /**
+     * Writes the tag clouds of the {@code wordNums[i]} most frequent words of
+     * {@code counter}, rendered together by {@code render}. A single cloud is
+     * written to {@code output}; several are written to the files named by
+     * {@code outputName}.
+     *
+     * @param counter
+     *            the counted words
+     * @param wordNums
+     *            numbers of words of the clouds
+     * @param title
+     *            the name shown on the pages
+     * @param output
+     *            the output HTML file name
+     * @throws IOException
+     *             if writing an output fails
+     * @requires |wordNums| > 0 and every number is >= 0
+     */
+    public static void writeClouds(WordCounter counter, int[] wordNums,
+            String title, String output) throws IOException {
+        assert wordNums != null : "Violation of: wordNums is not null";
+        assert output != null : "Violation of: output is not null";
+
+        if (wordNums.length == 1) {
+            writeCloud(counter, wordNums[0], title, output,
+                    new CloudRenderer());
+        } else {
+            CloudRenderer[] renderers = new CloudRenderer[wordNums.length];
+            for (int i = 0; i < renderers.length; i++) {
+                renderers[i] = new CloudRenderer();
+            }
+            render(counter, wordNums, title, renderers);
+            for (int i = 0; i < renderers.length; i++) {
+                write(renderers[i], outputName(output, wordNums[i]));
+            }
+        }
+    }
+
+    /**
+     * Counts the words of the input file approximately, in memory bounded by
+     * the cloud size and the error asked for rather than by the vocabulary,
+     * prints the error bounds and writes the cloud of the estimated counts.
+     *
+     * @param options
+     *            the command line options
+     * @throws IOException
+     *             if reading the input or writing the output fails
+     */
+    private static void approximate(TagCloudOptions options)
+            throws IOException {
+        //Monitors a few times more words than shown, so the shown ones are
+        //rarely the ones being replaced
+        final int slack = 4;
+        int capacity = (int) Math.min(HeavyHitters.MAX_CAPACITY, Math.max(
+                Math.ceil(1 / options.epsilon()),
+                (long) slack * Math.max(options.wordNum(), 1)));
+        HeavyHitters hitters = new HeavyHitters(capacity, options.epsilon(),
+                options.delta());
+        tokenizeInput(options, new CounterSink(hitters));
+        METRICS.tokens(hitters.total());
+        hitters.report(System.out, options.wordNum());
+        writeClouds(hitters.estimates(), options.wordNums(), options.input(),
+                options.output());
+    }
+
+    /**
+     * Counts the words of the input file in an {@code OffHeapWordCounter}, so
+     * the dictionary stays outside the Java heap, and writes the cloud of its
+     * most frequent words.
+     *
+     * @param options
+     *            the command line options
+     * @throws IOException
+     *             if reading the input or writing the output fails
+     */
+    private static void offHeap(TagCloudOptions options) throws IOException {
+        OffHeapWordCounter counter = new OffHeapWordCounter();
+        tokenizeInput(options, new CounterSink(counter));
+        METRICS.tokens(counter.total());
+        writeClouds(counter.top(options.wordNum()), options.wordNums(),
+                options.input(), options.output());
+    }
+
+    /**
+     * Counts the words of the input file exactly within the memory budget of
+     * {@code options}, spilling counts to disk if the vocabulary outgrows
+     * it, and writes the cloud of the most frequent words.
+     *
+     * @param options
+     *            the command line options
+     * @throws IOException
+     *             if reading the input, spilling or writing the output fails
+     */
+    private static void external(TagCloudOptions options) throws IOException {
+        final long bytesPerMegabyte = 1 << 20;
+        WordCounter top;
+        try (ExternalCounter counter = new ExternalCounter(
+                options.memoryMegabytes() * bytesPerMegabyte,
+                Paths.get(options.spillDirectory()))) {
+            try {
+                tokenizeInput(options, new CounterSink(counter));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            METRICS.tokens(counter.total());
+            long start = METRICS.start();
+            top = counter.top(options.wordNum(), options.threads());
+            METRICS.stop(Metrics.Stage.COUNT, start);
+            if (counter.spills() > 0) {
+                System.out.println("Spilled counts to disk " + counter.spills()
+                        + " times");
+            }
+        }
+        writeClouds(top, options.wordNums(), options.input(),
+                options.output());
+    }
+
+    /**
+     * Counts the phrases of {@code --ngram} words of the input file and
+     * writes the cloud of the most frequent ones; each phrase is a tag,
+     * scaled like a word.
+     *
+     * @param options
+     *            the command line options
+     * @throws IOException
+     *             if reading the input or writing the output fails
+     */
+    private static void phrases(TagCloudOptions options) throws IOException {
+        long start = METRICS.start();
+        PhraseCounter counter = new PhraseCounter(tokenizer, options.ngram());
+        WordCounter phrases = counter.count(options.input(),
+                options.wordNum());
+        METRICS.stop(Metrics.Stage.COUNT, start);
+        METRICS.file(inputSize(options.input()));
+        METRICS.lines(counter.lines());
+        METRICS.tokens(counter.tokens());
+        writeClouds(phrases, options.wordNums(), options.input(),
+                options.output());
+    }
+
+    /**
+     * Counts the words of the input file over a sliding window of the
+     * timestamps starting its lines and writes the cloud of the last window.
+     * When the input is standard input, the cloud is also rewritten each time
+     * a slice of the window ends, so it follows a live stream.
+     *
+     * @param options
+     *            the command line options
+     * @throws IOException
+     *             if reading the input or writing the output fails
+     */
+    private static void windowed(TagCloudOptions options) throws IOException {
+        WindowedCounter window = new WindowedCounter(options.windowMillis(),
+                options.slices());
+        CounterSink sink = new CounterSink(window);
+        CloudRenderer renderer = new CloudRenderer();
+        String input = options.input();
+        boolean live = input.equals(StreamTextReader.STDIN);
+        long start = METRICS.start();
+        long lines = 0;
+        try (BufferedReader in = new BufferedReader(
+                StreamTextReader.open(input))) {
+            String line = in.readLine();
+            while (line != null) {
+                long slice = window.sliceStart();
+                int textStart = window.advance(line);
+                if (live && slice != Long.MIN_VALUE
+                        && window.sliceStart() != slice) {
+                    writeWindow(window, options, renderer);
+                }
+                char[] chars = line.toCharArray();
+                tokenizer.tokenize(chars, textStart, chars.length, sink);
+                lines++;
+                line = in.readLine();
+            }
+        }
+        METRICS.lines(lines);
+        METRICS.stop(Metrics.Stage.COUNT, start);
+        METRICS.file(inputSize(input));
+        writeWindow(window, options, renderer);
+    }
+
+    /**
+     * Writes the cloud of the current window of {@code window} to the output
+     * file.
+     *
+     * @param window
+     *            the windowed counts
+     * @param options
+     *            the command line options
+     * @param renderer
+     *            scratch renderer for the page
+     * @throws IOException
+     *             if writing the output fails
+     * @clears renderer
+     */
+    private static void writeWindow(WindowedCounter window,
+            TagCloudOptions options, CloudRenderer renderer)
+            throws IOException {
+        renderer.reset();
+        window.render(options.wordNum(), options.input(), renderer);
+        write(renderer, options.output());
+        renderer.reset();
+    }
+
+    /**
+     * Reports every word of the input file to {@code sink}, memory-mapped if
+     * {@code options} ask for it and streamed in chunks otherwise.
+     *
+     * @param options
+     *            the command line options
+     * @param sink
+     *            receives each word
+     * @throws IOException
+     *             if reading the input fails
+     */
+    private static void tokenizeInput(TagCloudOptions options,
+            WordTokenizer.WordSink sink) throws IOException {
+        String input = options.input();
+        long start = METRICS.start();
+        if (options.mmap()) {
+            new MappedTextReader(tokenizer).tokenize(Paths.get(input), sink);
+        } else {
+            try (Reader in = StreamTextReader.open(input)) {
+                new StreamTextReader(tokenizer).tokenize(in, sink);
+            }
+        }
+        METRICS.stop(Metrics.Stage.COUNT, start);
+        METRICS.file(inputSize(input));
+    }
+
+    /**
+     * Runs one non-interactive job: loads any saved counts, counts the corpus
+     * and the input file, saves the counts if asked to and writes the cloud
+     * if an output file was given.
+     *
+     * @param options
+     *            the command line options
+     * @throws IOException
+     *             if reading or writing any file fails
+     */
+    private static void single(TagCloudOptions options) throws IOException {
+        if (options.epsilon() > 0) {
+            approximate(options);
+            return;
+        }
+        if (options.offHeap()) {
+            offHeap(options);
+            return;
+        }
+        if (options.windowMillis() > 0) {
+            windowed(options);
+            return;
+        }
+        if (options.ngram() > 0) {
+            phrases(options);
+            return;
+        }
+        if (options.memoryMegabytes() > 0) {
+            external(options);
+            return;
+        }
+        WordCounter counter = new WordCounter();
+        long start = METRICS.start();
+        for (String saved : options.loads()) {
+            WordCountsFile.load(Paths.get(saved), counter);
+        }
+        if (!options.loads().isEmpty()) {
+            METRICS.stop(Metrics.Stage.LOAD, start);
+        }
+        String title = String.join(", ", options.loads());
+        if (options.corpus() != null) {
+            List<Path> files = CorpusCounter.files(options.corpus());
+            if (files.isEmpty()) {
+                throw new IOException("No files match " + options.corpus());
+            }
+            start = METRICS.start();
+            WordCounter corpus = CorpusCounter.count(files, tokenizer,
+                    options.threads(), options.mmap(), System.out);
+            METRICS.stop(Metrics.Stage.COUNT, start);
+            METRICS.tokens(corpus.total());
+            counter.addAll(corpus);
+            title = options.corpus();
+        }
+        if (options.input() != null) {
+            countFile(options.input(), options, counter);
+            title = options.input();
+        }
+        if (options.save() != null) {
+            start = METRICS.start();
+            WordCountsFile.save(counter, Paths.get(options.save()));
+            METRICS.stop(Metrics.Stage.SAVE, start);
+        }
+        if (options.output() != null) {
+            writeClouds(counter, options.wordNums(), title,
+                    options.output());
+        }
+    }
+
+    /**
+     * Prompts for the input file, output file and number of words, then
+     * generates the tag cloud.
+     *
+     * @param options
+     *            the command line options
+     */
+    private static void interactive(TagCloudOptions options) {
 
         /*
          * initiate input and output streams.
@@ -547,18 +1442,15 @@ public final class TagCloud10 {
          * Get number of words to display.
          */
 
-        //Declaring a new map variable
-        SortedMap<String, Integer> wordMap = new TreeMap<String, Integer>();
-        wordMap.clear();
+        //Declaring a new counter for the words
+        WordCounter counter = new WordCounter();
 
         try {
             /*
              * Get words from input and add them to maps with their word as key
              * and count as values
              */
-            while (file.ready()) {
-                getWord(file, wordMap);
-            }
+            count(file, fileInput, options, counter);
 
         } catch (IOException e) {
             System.err.println("Error reading from the file");
@@ -573,7 +1465,7 @@ public final class TagCloud10 {
          * Sort words into non-decreasing lexicographic order and output it to
          * the HTML file
          */
-        valueSort(wordMap, n, html);
+        valueSort(counter, n, html);
 
         try {
             /*
@@ -589,4 +1481,110 @@ public final class TagCloud10 {
 
     }
 
+    /**
+     * Sets the separators and the word filter given by {@code options}. A
+     * separator file replaces {@code SEPARATORS} with its characters, and
+     * line breaks always separate words; without one, or without filtering
+     * options, the defaults are restored.
+     *
+     * @param options
+     *            the command line options
+     * @throws IOException
+     *             if the separator or stop word file cannot be read
+     */
+    static void configureWords(TagCloudOptions options) throws IOException {
+        if (options.separatorFile() != null) {
+            separators = new String(
+                    Files.readAllBytes(Paths.get(options.separatorFile())),
+                    StandardCharsets.UTF_8) + LINE_BREAKS;
+            tokenizer = new WordTokenizer(separators);
+        } else if (!separators.equals(SEPARATORS)) {
+            separators = SEPARATORS;
+            tokenizer = new WordTokenizer(SEPARATORS);
+        }
+        List<String> stopWords = new ArrayList<>();
+        for (String stopWordFile : options.stopWordFiles()) {
+            stopWords.addAll(
+                    WordFilter.readStopWords(stopWordFile, foldLocale));
+        }
+        if (!stopWords.isEmpty() || options.minLength() > 1
+                || options.maxLength() < Integer.MAX_VALUE
+                || options.dropNumbers()) {
+            wordFilter = new WordFilter(stopWords, options.minLength(),
+                    options.maxLength(), options.dropNumbers());
+        } else {
+            wordFilter = WordFilter.NONE;
+        }
+    }
+
+    /**
+     * Main method. Without arguments the input file, output file and number
+     * of words are prompted for; see {@code TagCloudOptions} for the options
+     * that generate one or many clouds non-interactively.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        TagCloudOptions options;
+        try {
+            options = TagCloudOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(TagCloudOptions.USAGE);
+            return;
+        }
+        foldLocale = options.foldLocale();
+        fontCurve = options.fontCurve();
+        try {
+            configureWords(options);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            return;
+        }
+        if (options.metrics() || options.metricsJson() != null) {
+            try {
+                METRICS.register();
+            } catch (JMException e) {
+                System.err.println("Error registering metrics: "
+                        + e.getMessage());
+            }
+        }
+
+        if (options.port() >= 0) {
+            try {
+                TagCloudServer.start(options);
+            } catch (IOException e) {
+                System.err.println("Error starting server: " + e.getMessage());
+            }
+            //The server threads keep running after main returns, and the
+            //counters are served rather than printed
+            return;
+        }
+        if (options.manifest() != null) {
+            BatchRunner.run(options);
+        } else if (options.isInteractive()) {
+            interactive(options);
+        } else {
+            try {
+                single(options);
+            } catch (IOException e) {
+                METRICS.error();
+                System.err.println("Error: " + e.getMessage());
+            }
+        }
+
+        if (options.metrics()) {
+            System.err.print(METRICS.summary());
+        }
+        if (options.metricsJson() != null) {
+            try {
+                Files.write(Paths.get(options.metricsJson()),
+                        METRICS.toJson().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                System.err.println("Error writing metrics: " + e.getMessage());
+            }
+        }
+    }
+
 }
@@ -0,0 +1,464 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Micro-benchmarks for the stages of {@code TagCloud10}: tokenizing
+ * ({@code nextWordOrSeparator}), counting ({@code getWord},
+ * {@code wordCount}), selecting ({@code valueSort}) and rendering
+ * ({@code fontSize}, {@code FontScale}, {@code outputTag},
+ * {@code CloudRenderer}). Each benchmark runs on
+ * {@code importance.txt}, when given, and on synthetic corpora of varying
+ * vocabulary size and line length generated from a fixed seed, so numbers are
+ * reproducible from run to run.
+ *
+ * <p>
+ * Each case is run for a number of warmup iterations, to let the JIT compile
+ * it, then timed over the measurement iterations; the mean and standard
+ * deviation per iteration are printed with the input throughput. Results are
+ * folded into a volatile field so the JIT cannot discard the work.
+ * </p>
+ *
+ * <p>
+ * This harness runs every case in one JVM, so the JIT profile of one case
+ * can slow the next; it is meant for quick comparisons during development.
+ * For numbers to report, run the forked JMH benchmarks of
+ * {@code jmh/StageBenchmark} instead.
+ * </p>
+ *
+ * <pre>
+ * java TagCloudBenchmark [--corpus FILE] [--warmup N] [--iterations N]
+ *                        [--filter TEXT]
+ * </pre>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class TagCloudBenchmark {
+
+    /**
+     * A benchmarked operation over one corpus.
+     */
+    private interface Case {
+
+        /**
+         * Runs the operation once.
+         *
+         * @param corpus
+         *            the corpus to run on
+         * @return a value derived from the result, to keep it alive
+         * @throws IOException
+         *             if the operation fails
+         */
+        long run(Corpus corpus) throws IOException;
+    }
+
+    /**
+     * A named text with its lines and pre-computed counts.
+     */
+    private static final class Corpus {
+
+        /**
+         * Name shown in the report.
+         */
+        private final String name;
+
+        /**
+         * The whole text.
+         */
+        private final String text;
+
+        /**
+         * The lines of the text.
+         */
+        private final String[] lines;
+
+        /**
+         * The counted words of the text.
+         */
+        private final WordCounter counter = new WordCounter();
+
+        /**
+         * The counted words of the text, as a map.
+         */
+        private final SortedMap<String, Integer> wordMap = new TreeMap<>();
+
+        /**
+         * Creates a corpus and counts its words.
+         *
+         * @param name
+         *            name shown in the report
+         * @param text
+         *            the text
+         * @throws IOException
+         *             never, the text is in memory
+         */
+        Corpus(String name, String text) throws IOException {
+            this.name = name;
+            this.text = text;
+            //Splits exactly as readLine does, so every line is read once
+            this.lines = text.split("\r\n|\r|\n", -1);
+            BufferedReader in = new BufferedReader(new StringReader(text));
+            TagCloud10.CounterSink sink = new TagCloud10.CounterSink(
+                    this.counter);
+            for (int i = 0; i < this.lines.length; i++) {
+                TagCloud10.getWord(in, sink);
+            }
+            for (int id = 0; id < this.counter.size(); id++) {
+                this.wordMap.put(this.counter.word(id),
+                        this.counter.count(id));
+            }
+        }
+    }
+
+    /**
+     * A {@code Writer} that discards its output.
+     */
+    private static final class NullWriter extends Writer {
+
+        /**
+         * Number of characters written, to keep the output alive.
+         */
+        private long written;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            this.written += len;
+        }
+
+        @Override
+        public void flush() {
+            //Nothing is buffered
+        }
+
+        @Override
+        public void close() {
+            //Nothing to release
+        }
+    }
+
+    /**
+     * Separators used by {@code TagCloud10}.
+     */
+    private static final String SEPARATORS = " \"\t\n\r,-.!?';:/()*_\\[]{}"
+            + "|<>~=";
+
+    /**
+     * Number of words in the rendered clouds.
+     */
+    private static final int CLOUD_SIZE = 100;
+
+    /**
+     * Approximate size of each synthetic corpus, in characters.
+     */
+    private static final int SYNTHETIC_SIZE = 4 << 20;
+
+    /**
+     * Usage message printed when the options are invalid.
+     */
+    private static final String USAGE = "Usage: TagCloudBenchmark "
+            + "[--corpus FILE] [--warmup N] [--iterations N] [--filter TEXT]";
+
+    /**
+     * Receives the result of every run.
+     */
+    private static volatile long sink;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private TagCloudBenchmark() {
+    }
+
+    /**
+     * Generates a corpus of about {@code SYNTHETIC_SIZE} characters drawn
+     * from {@code vocabulary} distinct words with a Zipf-like distribution,
+     * {@code lineWords} words per line.
+     *
+     * @param vocabulary
+     *            number of distinct words
+     * @param lineWords
+     *            number of words per line
+     * @return the generated text
+     */
+    static String synthetic(int vocabulary, int lineWords) {
+        Random random = new Random(vocabulary * 31L + lineWords);
+        String[] words = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 2 + random.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            //Capitalizes some words so case folding is exercised
+            if (random.nextInt(8) == 0) {
+                word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+            }
+            words[i] = word.toString() + i;
+        }
+
+        StringBuilder text = new StringBuilder(SYNTHETIC_SIZE + 256);
+        while (text.length() < SYNTHETIC_SIZE) {
+            for (int w = 0; w < lineWords; w++) {
+                //Squaring a uniform variable favors low ranks
+                double u = random.nextDouble();
+                text.append(words[(int) (u * u * vocabulary)]);
+                text.append(w % 7 == 6 ? ", " : " ");
+            }
+            text.append(".\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Times {@code benchmark} on {@code corpus} and prints one report line.
+     *
+     * @param name
+     *            the benchmark name
+     * @param benchmark
+     *            the operation to time
+     * @param corpus
+     *            the corpus to run on
+     * @param warmup
+     *            number of untimed iterations
+     * @param iterations
+     *            number of timed iterations
+     * @throws IOException
+     *             if the operation fails
+     */
+    private static void measure(String name, Case benchmark, Corpus corpus,
+            int warmup, int iterations) throws IOException {
+        for (int i = 0; i < warmup; i++) {
+            sink += benchmark.run(corpus);
+        }
+        double[] times = new double[iterations];
+        double sum = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            sink += benchmark.run(corpus);
+            times[i] = (System.nanoTime() - start) / 1e6;
+            sum += times[i];
+        }
+        double mean = sum / iterations;
+        double variance = 0;
+        for (double t : times) {
+            variance += (t - mean) * (t - mean);
+        }
+        double stddev = Math.sqrt(variance / iterations);
+        double mbPerSecond = corpus.text.length() / 1e6 / (mean / 1e3);
+        System.out.printf("%-22s %-24s %10.3f ms/op +- %8.3f %9.1f MB/s%n",
+                name, corpus.name, mean, stddev, mbPerSecond);
+    }
+
+    /**
+     * Returns the benchmarks, by name.
+     *
+     * @param names
+     *            receives the name of each benchmark, in the same order
+     * @return the benchmarks
+     */
+    private static List<Case> cases(List<String> names) {
+        List<Case> cases = new ArrayList<>();
+        final Set<Character> separators = new HashSet<>();
+        TagCloud10.generateElements(SEPARATORS, separators);
+
+        names.add("nextWordOrSeparator");
+        cases.add(corpus -> {
+            long n = 0;
+            for (String line : corpus.lines) {
+                int position = 0;
+                while (position < line.length()) {
+                    position += TagCloud10
+                            .nextWordOrSeparator(line, position, separators)
+                            .length();
+                    n++;
+                }
+            }
+            return n;
+        });
+
+        names.add("getWord");
+        cases.add(corpus -> {
+            WordCounter counter = new WordCounter();
+            BufferedReader in = new BufferedReader(
+                    new StringReader(corpus.text));
+            TagCloud10.CounterSink sink = new TagCloud10.CounterSink(counter);
+            //StringReader is always ready, so reads one line at a time
+            for (int i = 0; i < corpus.lines.length; i++) {
+                TagCloud10.getWord(in, sink);
+            }
+            return counter.size();
+        });
+
+        names.add("wordCount");
+        cases.add(corpus -> {
+            long n = 0;
+            for (String word : corpus.wordMap.keySet()) {
+                n += TagCloud10.wordCount(word, corpus.wordMap);
+            }
+            return n;
+        });
+
+        names.add("valueSort");
+        cases.add(corpus -> {
+            NullWriter out = new NullWriter();
+            TagCloud10.valueSort(corpus.counter, CLOUD_SIZE,
+                    new PrintWriter(out));
+            return out.written;
+        });
+
+        names.add("fontSize");
+        cases.add(corpus -> {
+            long n = 0;
+            int max = corpus.counter.size();
+            for (int count = 1; count <= max; count++) {
+                n += TagCloud10.fontSize(max, 1, count);
+            }
+            return n;
+        });
+
+        //The scale is built once per cloud, as the renderers do, so its
+        //cost is measured with the lookups
+        for (FontScale.Curve curve : FontScale.Curve.values()) {
+            names.add("fontScale-" + curve.name().toLowerCase(Locale.ROOT));
+            cases.add(corpus -> {
+                long n = 0;
+                int max = corpus.counter.size();
+                FontScale scale = new FontScale(curve, 1, max);
+                for (int count = 1; count <= max; count++) {
+                    n += scale.font(count);
+                }
+                return n;
+            });
+        }
+
+        names.add("outputTag");
+        cases.add(corpus -> {
+            NullWriter out = new NullWriter();
+            PrintWriter writer = new PrintWriter(out);
+            TagCloud10.outputTag(writer, corpus.wordMap,
+                    corpus.wordMap.size(), 1);
+            writer.flush();
+            return out.written;
+        });
+        names.add("render");
+        final CloudRenderer renderer = new CloudRenderer();
+        cases.add(corpus -> {
+            renderer.reset();
+            renderer.begin(corpus.name);
+            FontScale scale = new FontScale(FontScale.Curve.LINEAR, 1,
+                    corpus.wordMap.size());
+            for (Entry<String, Integer> element : corpus.wordMap.entrySet()) {
+                int freq = element.getValue();
+                renderer.tag(element.getKey(), freq, scale.font(freq));
+            }
+            renderer.end();
+            return renderer.length();
+        });
+        return cases;
+    }
+
+    /**
+     * Returns the value following option {@code args[i]}.
+     *
+     * @param args
+     *            the command line arguments
+     * @param i
+     *            the index of the option
+     * @return the option value
+     * @throws IllegalArgumentException
+     *             if the value is missing
+     */
+    private static String value(String[] args, int i) {
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException(
+                    "Missing value for " + args[i]);
+        }
+        return args[i + 1];
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     * @throws IOException
+     *             if the corpus cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        String corpusFile = null;
+        int warmup = 5;
+        int iterations = 10;
+        String filter = "";
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                switch (args[i]) {
+                    case "--corpus":
+                        corpusFile = value(args, i);
+                        break;
+                    case "--warmup":
+                        warmup = Integer.parseInt(value(args, i));
+                        break;
+                    case "--iterations":
+                        iterations = Integer.parseInt(value(args, i));
+                        break;
+                    case "--filter":
+                        filter = value(args, i);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(
+                                "Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            //Also catches the NumberFormatException of a bad count
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return;
+        }
+
+        List<Corpus> corpora = new ArrayList<>();
+        if (corpusFile != null) {
+            corpora.add(new Corpus(Paths.get(corpusFile).getFileName()
+                    .toString(),
+                    new String(Files.readAllBytes(Paths.get(corpusFile)),
+                            StandardCharsets.UTF_8)));
+        }
+        final int[] vocabularies = { 1_000, 100_000, 1_000_000 };
+        final int[] lineLengths = { 10, 200 };
+        for (int vocabulary : vocabularies) {
+            for (int lineWords : lineLengths) {
+                corpora.add(new Corpus(
+                        "v" + vocabulary + "/l" + lineWords,
+                        synthetic(vocabulary, lineWords)));
+            }
+        }
+
+        List<String> names = new ArrayList<>();
+        List<Case> cases = cases(names);
+        for (int c = 0; c < cases.size(); c++) {
+            if (names.get(c).contains(filter)) {
+                for (Corpus corpus : corpora) {
+                    measure(names.get(c), cases.get(c), corpus, warmup,
+                            iterations);
+                }
+            }
+        }
+        System.out.println("checksum " + sink);
+    }
+
+}
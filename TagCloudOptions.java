@@ -0,0 +1,1010 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line options of {@code TagCloud10}. With no options the program
+ * prompts for its input as before; the options below make it scriptable.
+ *
+ * <pre>
+ * -i FILE          input text file; "-" reads standard input and a name
+ *                  ending in .gz is decompressed while it is read
+ * -o FILE          output HTML file
+ * -n N             number of words in the cloud; a list such as 25,50,100
+ *                  writes one cloud per N from a single count, named by
+ *                  inserting -N before the extension of -o
+ * --batch FILE     manifest of "input output N" lines to process in one run
+ * --jobs J         number of manifest entries processed at once (default 1)
+ * --threads T      count each input on T threads (default 1)
+ * --mmap           memory-map each input and tokenize it as UTF-8
+ * --snapshot FILE  keep the counts of -i in FILE and only count what was
+ *                  appended to it since the previous run
+ * --save FILE      save the word counts to FILE ({@code WordCountsFile})
+ * --load FILE      add the word counts saved in FILE; may be repeated, and
+ *                  may replace -i
+ * --corpus PATH    add the words of every file under directory PATH, or
+ *                  matching glob PATH, counted on --threads threads, and
+ *                  print the throughput of each file
+ * --approx EPS     count -i approximately in bounded memory, monitoring
+ *                  max(1/EPS, 4N) words, up to about four million, and
+ *                  print the error bounds
+ * --delta D        probability that an approximate estimate exceeds its
+ *                  bound (default 0.01)
+ * --offheap        count -i with the dictionary in direct memory outside the
+ *                  Java heap
+ * --window W      count -i over a sliding window, the last W (such as 300s,
+ *                  5m or 1h) by the timestamps starting its lines, and write
+ *                  the cloud of the window at the end of the input, and also
+ *                  each time a slice of the window ends when -i is standard
+ *                  input
+ * --slices S       number of slices the window moves by (default 60)
+ * --ngram K        make a cloud of the phrases of K consecutive words of -i,
+ *                  which is read twice
+ * --memory MB      count -i exactly with at most MB megabytes of counts in
+ *                  memory, spilling the rest to disk in hash partitions that
+ *                  are counted on --threads threads, each within an equal
+ *                  share of MB, and split again while they do not fit
+ * --spill-dir DIR  directory of the spilled counts (default: the system
+ *                  temporary directory)
+ * --fold MODE      lowercase words with the rules of the default locale
+ *                  ("locale", the default) or of no locale ("root"), so the
+ *                  cloud is the same on every machine
+ * --stopwords FILE do not count the words listed in FILE, separated by white
+ *                  space, with # starting a comment; may be repeated
+ * --min-length L   do not count words shorter than L characters
+ * --max-length L   do not count words longer than L characters
+ * --drop-numbers   do not count words made only of digits
+ * --separators F   split words at the characters of file F, and at line
+ *                  breaks, instead of the default punctuation and spaces
+ * --scale CURVE    spread the counts over the font sizes in proportion to
+ *                  the count ("linear", the default), its logarithm ("log")
+ *                  or its square root ("sqrt")
+ * --serve PORT     serve clouds over HTTP on PORT of the loopback interface
+ *                  (0 for any free port) instead of generating one; see
+ *                  {@code TagCloudServer}
+ * --cache-mb MB    size of the cache of pages served (default 64)
+ * --serve-root DIR let the server read file=PATH requests, for files under
+ *                  DIR only (by default it reads no files)
+ * --metrics        print the time of each stage and the run counters
+ * --metrics-json F write the counters to F as JSON
+ * </pre>
+ *
+ * <p>
+ * With either metrics option the counters are also registered with JMX as
+ * {@code TagCloud:type=Metrics}, to be watched during long batch runs.
+ * </p>
+ *
+ * <p>
+ * Without -o no cloud is written, which is only useful with --save.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class TagCloudOptions {
+
+    /**
+     * Usage message printed when the options are invalid.
+     */
+    public static final String USAGE = "Usage: TagCloud10 [[-i FILE] "
+            + "[--load FILE]... [--corpus PATH] [-o FILE -n N[,N]...] "
+            + "[--save FILE] [--snapshot FILE] "
+            + "[--approx EPS [--delta D] | --offheap | --window W "
+            + "[--slices S] | --ngram K | --memory MB [--spill-dir DIR]]"
+            + " | --batch FILE [--jobs J]] [--threads T] [--mmap] "
+            + "[--fold locale|root] [--stopwords FILE]... [--min-length L] "
+            + "[--max-length L] [--drop-numbers] [--separators FILE] "
+            + "[--scale linear|log|sqrt] "
+            + "[--serve PORT [--cache-mb MB] [--serve-root DIR]] "
+            + "[--metrics] [--metrics-json FILE]";
+
+    /**
+     * Input file, or null to prompt for it.
+     */
+    private String input;
+
+    /**
+     * Output file, or null to prompt for it.
+     */
+    private String output;
+
+    /**
+     * Number of words in the cloud, or -1 to prompt for it.
+     */
+    private int wordNum = -1;
+
+    /**
+     * Numbers of words of the clouds written, in the order given.
+     */
+    private int[] wordNums = new int[0];
+
+    /**
+     * Batch manifest, or null.
+     */
+    private String manifest;
+
+    /**
+     * Number of manifest entries processed at once.
+     */
+    private int jobs = 1;
+
+    /**
+     * Number of threads counting each input.
+     */
+    private int threads = 1;
+
+    /**
+     * Whether inputs are memory-mapped.
+     */
+    private boolean mmap;
+
+    /**
+     * Snapshot file of an incremental count, or null.
+     */
+    private String snapshot;
+
+    /**
+     * Files of saved counts to add.
+     */
+    private final List<String> loads = new ArrayList<>();
+
+    /**
+     * File to save the counts to, or null.
+     */
+    private String save;
+
+    /**
+     * Directory or glob of a corpus to count, or null.
+     */
+    private String corpus;
+
+    /**
+     * Relative error of approximate counting, or 0 to count exactly.
+     */
+    private double epsilon;
+
+    /**
+     * Probability that an approximate estimate exceeds its error.
+     */
+    private double delta = 0.01;
+
+    /**
+     * Whether the dictionary is kept outside the Java heap.
+     */
+    private boolean offHeap;
+
+    /**
+     * Length of the sliding window in milliseconds, or 0 for no window.
+     */
+    private long windowMillis;
+
+    /**
+     * Number of slices of the sliding window.
+     */
+    private int slices = 60;
+
+    /**
+     * Number of words in a phrase of a phrase cloud, or 0 for a word cloud.
+     */
+    private int ngram;
+
+    /**
+     * Memory budget of external counting in megabytes, or 0 to count in
+     * memory.
+     */
+    private int memoryMegabytes;
+
+    /**
+     * Directory of the counts spilled by external counting.
+     */
+    private String spillDirectory = System.getProperty("java.io.tmpdir");
+
+    /**
+     * Locale whose case rules fold words to lowercase.
+     */
+    private Locale foldLocale = Locale.getDefault();
+
+    /**
+     * Files of stop words.
+     */
+    private final List<String> stopWordFiles = new ArrayList<>();
+
+    /**
+     * Shortest word counted.
+     */
+    private int minLength = 1;
+
+    /**
+     * Longest word counted.
+     */
+    private int maxLength = Integer.MAX_VALUE;
+
+    /**
+     * Whether words made only of digits are dropped.
+     */
+    private boolean dropNumbers;
+
+    /**
+     * File of separator characters, or null for the default separators.
+     */
+    private String separatorFile;
+
+    /**
+     * How counts are spread over the font sizes.
+     */
+    private FontScale.Curve fontCurve = FontScale.Curve.LINEAR;
+
+    /**
+     * Port clouds are served on, or -1 to generate one cloud.
+     */
+    private int port = -1;
+
+    /**
+     * Size of the cache of served pages, in megabytes.
+     */
+    private int cacheMegabytes = 64;
+
+    /**
+     * Directory whose files the server may read, or null if it reads none.
+     */
+    private String serveRoot;
+
+    /**
+     * Whether the run counters are printed.
+     */
+    private boolean metrics;
+
+    /**
+     * File the run counters are written to as JSON, or null.
+     */
+    private String metricsJson;
+
+    /**
+     * Private constructor; use {@code parse}.
+     */
+    private TagCloudOptions() {
+    }
+
+    /**
+     * Returns the value following option {@code args[i]}.
+     *
+     * @param args
+     *            the command line arguments
+     * @param i
+     *            the index of the option
+     * @return the option value
+     * @throws IllegalArgumentException
+     *             if the value is missing
+     */
+    private static String value(String[] args, int i) {
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException(
+                    "Missing value for " + args[i]);
+        }
+        return args[i + 1];
+    }
+
+    /**
+     * Returns the positive integer value following option {@code args[i]}.
+     *
+     * @param args
+     *            the command line arguments
+     * @param i
+     *            the index of the option
+     * @param min
+     *            the smallest accepted value
+     * @return the option value
+     * @throws IllegalArgumentException
+     *             if the value is missing, not an integer or below
+     *             {@code min}
+     */
+    private static int intValue(String[] args, int i, int min) {
+        return intValue(args[i], value(args, i), min);
+    }
+
+    /**
+     * Returns {@code text}, the value of {@code option}, as an integer.
+     *
+     * @param option
+     *            the option
+     * @param text
+     *            the option value
+     * @param min
+     *            the smallest accepted value
+     * @return the option value
+     * @throws IllegalArgumentException
+     *             if {@code text} is not an integer or is below {@code min}
+     */
+    private static int intValue(String option, String text, int min) {
+        int n;
+        try {
+            n = Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + option + ": " + text, e);
+        }
+        if (n < min) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + option + ": " + text);
+        }
+        return n;
+    }
+
+    /**
+     * Returns the comma-separated integers following option
+     * {@code args[i]}.
+     *
+     * @param args
+     *            the command line arguments
+     * @param i
+     *            the index of the option
+     * @param min
+     *            the smallest accepted value
+     * @return the option values, in order
+     * @throws IllegalArgumentException
+     *             if the value is missing or an item is not an integer or is
+     *             below {@code min}
+     */
+    private static int[] intListValue(String[] args, int i, int min) {
+        String[] items = value(args, i).split(",", -1);
+        int[] result = new int[items.length];
+        for (int j = 0; j < items.length; j++) {
+            result[j] = intValue(args[i], items[j].trim(), min);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the value following option {@code args[i]} as a probability.
+     *
+     * @param args
+     *            the command line arguments
+     * @param i
+     *            the index of the option
+     * @return the option value
+     * @throws IllegalArgumentException
+     *             if the value is missing or not strictly between 0 and 1
+     */
+    private static double probabilityValue(String[] args, int i) {
+        String text = value(args, i);
+        double p;
+        try {
+            p = Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + args[i] + ": " + text, e);
+        }
+        if (!(0 < p && p < 1)) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + args[i] + ": " + text);
+        }
+        return p;
+    }
+
+    /**
+     * Returns the duration following option {@code args[i]}: a positive
+     * integer followed by a unit, ms, s, m, h or d.
+     *
+     * @param args
+     *            the command line arguments
+     * @param i
+     *            the index of the option
+     * @return the duration in milliseconds
+     * @throws IllegalArgumentException
+     *             if the value is missing or not a duration
+     */
+    private static long durationValue(String[] args, int i) {
+        final long second = 1000;
+        final long minute = 60 * second;
+        final long hour = 60 * minute;
+        final long day = 24 * hour;
+        String text = value(args, i);
+        int unit = 0;
+        while (unit < text.length() && Character.isDigit(text.charAt(unit))) {
+            unit++;
+        }
+        long scale;
+        switch (text.substring(unit)) {
+            case "ms":
+                scale = 1;
+                break;
+            case "s":
+                scale = second;
+                break;
+            case "m":
+                scale = minute;
+                break;
+            case "h":
+                scale = hour;
+                break;
+            case "d":
+                scale = day;
+                break;
+            default:
+                scale = 0;
+                break;
+        }
+        long n = 0;
+        if (unit > 0 && scale > 0) {
+            try {
+                n = Math.multiplyExact(Long.parseLong(text.substring(0, unit)),
+                        scale);
+            } catch (NumberFormatException | ArithmeticException e) {
+                n = 0;
+            }
+        }
+        if (n <= 0) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + args[i] + ": " + text);
+        }
+        return n;
+    }
+
+    /**
+     * Returns the locale named by the case folding mode following option
+     * {@code args[i]}.
+     *
+     * @param args
+     *            the command line arguments
+     * @param i
+     *            the index of the option
+     * @return the default locale for "locale", {@code Locale.ROOT} for "root"
+     * @throws IllegalArgumentException
+     *             if the value is missing or not a mode
+     */
+    private static Locale foldValue(String[] args, int i) {
+        String text = value(args, i);
+        Locale locale;
+        switch (text) {
+            case "locale":
+                locale = Locale.getDefault();
+                break;
+            case "root":
+                locale = Locale.ROOT;
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Invalid value for " + args[i] + ": " + text);
+        }
+        return locale;
+    }
+
+    /**
+     * Returns the curve named by the value of option {@code args[i]}.
+     *
+     * @param args
+     *            the command line arguments
+     * @param i
+     *            the index of the option
+     * @return the curve named "linear", "log" or "sqrt"
+     * @throws IllegalArgumentException
+     *             if the value is missing or not a curve
+     */
+    private static FontScale.Curve curveValue(String[] args, int i) {
+        String text = value(args, i);
+        FontScale.Curve curve;
+        switch (text) {
+            case "linear":
+                curve = FontScale.Curve.LINEAR;
+                break;
+            case "log":
+                curve = FontScale.Curve.LOG;
+                break;
+            case "sqrt":
+                curve = FontScale.Curve.SQRT;
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Invalid value for " + args[i] + ": " + text);
+        }
+        return curve;
+    }
+
+    /**
+     * Parses the command line arguments.
+     *
+     * @param args
+     *            the command line arguments
+     * @return the parsed options
+     * @throws IllegalArgumentException
+     *             if {@code args} are not valid options
+     */
+    public static TagCloudOptions parse(String[] args) {
+        assert args != null : "Violation of: args is not null";
+
+        TagCloudOptions options = new TagCloudOptions();
+        int i = 0;
+        while (i < args.length) {
+            //Every option but the flags takes one value
+            int used = 2;
+            switch (args[i]) {
+                case "-i":
+                    options.input = value(args, i);
+                    break;
+                case "-o":
+                    options.output = value(args, i);
+                    break;
+                case "-n":
+                    options.wordNums = intListValue(args, i, 0);
+                    options.wordNum = Arrays.stream(options.wordNums).max()
+                            .getAsInt();
+                    break;
+                case "--batch":
+                    options.manifest = value(args, i);
+                    break;
+                case "--jobs":
+                    options.jobs = intValue(args, i, 1);
+                    break;
+                case "--threads":
+                    options.threads = intValue(args, i, 1);
+                    break;
+                case "--snapshot":
+                    options.snapshot = value(args, i);
+                    break;
+                case "--save":
+                    options.save = value(args, i);
+                    break;
+                case "--load":
+                    options.loads.add(value(args, i));
+                    break;
+                case "--corpus":
+                    options.corpus = value(args, i);
+                    break;
+                case "--approx":
+                    options.epsilon = probabilityValue(args, i);
+                    break;
+                case "--delta":
+                    options.delta = probabilityValue(args, i);
+                    break;
+                case "--offheap":
+                    options.offHeap = true;
+                    used = 1;
+                    break;
+                case "--window":
+                    options.windowMillis = durationValue(args, i);
+                    break;
+                case "--slices":
+                    options.slices = intValue(args, i, 1);
+                    break;
+                case "--ngram":
+                    options.ngram = intValue(args, i, 1);
+                    break;
+                case "--memory":
+                    options.memoryMegabytes = intValue(args, i, 1);
+                    break;
+                case "--spill-dir":
+                    options.spillDirectory = value(args, i);
+                    break;
+                case "--fold":
+                    options.foldLocale = foldValue(args, i);
+                    break;
+                case "--stopwords":
+                    options.stopWordFiles.add(value(args, i));
+                    break;
+                case "--min-length":
+                    options.minLength = intValue(args, i, 1);
+                    break;
+                case "--max-length":
+                    options.maxLength = intValue(args, i, 1);
+                    break;
+                case "--drop-numbers":
+                    options.dropNumbers = true;
+                    used = 1;
+                    break;
+                case "--separators":
+                    options.separatorFile = value(args, i);
+                    break;
+                case "--scale":
+                    options.fontCurve = curveValue(args, i);
+                    break;
+                case "--serve":
+                    options.port = intValue(args, i, 0);
+                    break;
+                case "--cache-mb":
+                    options.cacheMegabytes = intValue(args, i, 1);
+                    break;
+                case "--serve-root":
+                    options.serveRoot = value(args, i);
+                    break;
+                case "--metrics":
+                    options.metrics = true;
+                    used = 1;
+                    break;
+                case "--metrics-json":
+                    options.metricsJson = value(args, i);
+                    break;
+                case "--mmap":
+                    options.mmap = true;
+                    used = 1;
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                            "Unknown option " + args[i]);
+            }
+            i += used;
+        }
+
+        if (options.manifest != null && (options.input != null
+                || options.output != null || options.wordNum >= 0
+                || options.save != null || !options.loads.isEmpty()
+                || options.corpus != null)) {
+            throw new IllegalArgumentException("--batch cannot be combined "
+                    + "with -i, -o, -n, --save, --load or --corpus");
+        }
+        if (options.snapshot != null
+                && (options.manifest != null || options.corpus != null)) {
+            throw new IllegalArgumentException(
+                    "--snapshot cannot be combined with --batch or --corpus");
+        }
+        if (options.input != null && StreamTextReader.isStream(options.input)
+                && (options.mmap || options.snapshot != null)) {
+            throw new IllegalArgumentException("--mmap and --snapshot need "
+                    + "a regular input file");
+        }
+        if (options.port >= 0 && (options.manifest != null
+                || options.input != null || options.output != null
+                || options.wordNum >= 0 || options.save != null
+                || !options.loads.isEmpty() || options.corpus != null
+                || options.snapshot != null || options.epsilon > 0
+                || options.offHeap || options.windowMillis > 0
+                || options.ngram > 0 || options.memoryMegabytes > 0)) {
+            throw new IllegalArgumentException("--serve takes the input and "
+                    + "N of each request and cannot be combined with -i, -o, "
+                    + "-n, --batch, --load, --corpus, --save, --snapshot, "
+                    + "--approx, --offheap, --window, --ngram or --memory");
+        }
+        if (options.serveRoot != null && options.port < 0) {
+            throw new IllegalArgumentException("--serve-root needs --serve");
+        }
+        if (options.minLength > options.maxLength) {
+            throw new IllegalArgumentException(
+                    "--min-length cannot exceed --max-length");
+        }
+        boolean windowed = options.windowMillis > 0;
+        int modes = 0;
+        for (boolean mode : new boolean[] {options.epsilon > 0,
+                options.offHeap, windowed, options.ngram > 0,
+                options.memoryMegabytes > 0}) {
+            if (mode) {
+                modes++;
+            }
+        }
+        if (modes > 1) {
+            throw new IllegalArgumentException("Only one of --approx, "
+                    + "--offheap, --window, --ngram and --memory is allowed");
+        }
+        if (options.ngram > 0 && options.input != null
+                && options.input.equals(StreamTextReader.STDIN)) {
+            throw new IllegalArgumentException(
+                    "--ngram reads -i twice and needs a file");
+        }
+        if (windowed && (options.wordNums.length > 1
+                || options.slices > options.windowMillis || options.mmap)) {
+            throw new IllegalArgumentException("--window needs a single N, "
+                    + "at most one slice per millisecond and no --mmap");
+        }
+        if (modes > 0 && (options.input == null
+                || options.output == null || options.manifest != null
+                || options.corpus != null || options.snapshot != null
+                || options.save != null || !options.loads.isEmpty()
+                || (options.threads > 1 && options.memoryMegabytes == 0))) {
+            throw new IllegalArgumentException("--approx, --offheap, "
+                    + "--window, --ngram and --memory need -i, -o and -n and "
+                    + "cannot be combined with other inputs, --save or "
+                    + "--snapshot; only --memory takes --threads");
+        }
+        if (!options.isInteractive() && options.manifest == null
+                && options.port < 0) {
+            if (options.output == null && options.save == null) {
+                throw new IllegalArgumentException("-o or --save is required");
+            }
+            if (options.output != null && options.wordNum < 0) {
+                throw new IllegalArgumentException("-o requires -n");
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Reports whether no input file was given, so it must be prompted for.
+     *
+     * @return true iff the program should prompt for its input
+     */
+    public boolean isInteractive() {
+        return this.manifest == null && this.input == null
+                && this.loads.isEmpty() && this.corpus == null
+                && this.port < 0;
+    }
+
+    /**
+     * Returns the input file.
+     *
+     * @return the input file, or null
+     */
+    public String input() {
+        return this.input;
+    }
+
+    /**
+     * Returns the output file.
+     *
+     * @return the output file, or null
+     */
+    public String output() {
+        return this.output;
+    }
+
+    /**
+     * Returns the number of words in the cloud, the largest if several were
+     * given.
+     *
+     * @return the number of words, or -1 if it must be prompted for
+     */
+    public int wordNum() {
+        return this.wordNum;
+    }
+
+    /**
+     * Returns the numbers of words of the clouds written.
+     *
+     * @return the numbers of words, in the order given; empty if they must be
+     *         prompted for
+     */
+    public int[] wordNums() {
+        return this.wordNums.clone();
+    }
+
+    /**
+     * Returns the batch manifest.
+     *
+     * @return the manifest file, or null
+     */
+    public String manifest() {
+        return this.manifest;
+    }
+
+    /**
+     * Returns the number of manifest entries processed at once.
+     *
+     * @return the number of jobs, at least 1
+     */
+    public int jobs() {
+        return this.jobs;
+    }
+
+    /**
+     * Returns the number of threads counting each input.
+     *
+     * @return the number of threads, at least 1
+     */
+    public int threads() {
+        return this.threads;
+    }
+
+    /**
+     * Reports whether inputs are memory-mapped.
+     *
+     * @return true iff inputs are memory-mapped
+     */
+    public boolean mmap() {
+        return this.mmap;
+    }
+
+    /**
+     * Returns the snapshot file of an incremental count.
+     *
+     * @return the snapshot file, or null
+     */
+    public String snapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Returns the files of saved counts to add.
+     *
+     * @return the files, in command line order
+     */
+    public List<String> loads() {
+        return this.loads;
+    }
+
+    /**
+     * Returns the file to save the counts to.
+     *
+     * @return the file, or null
+     */
+    public String save() {
+        return this.save;
+    }
+
+    /**
+     * Returns the directory or glob of a corpus to count.
+     *
+     * @return the corpus, or null
+     */
+    public String corpus() {
+        return this.corpus;
+    }
+
+    /**
+     * Returns the relative error of approximate counting.
+     *
+     * @return the relative error, or 0 to count exactly
+     */
+    public double epsilon() {
+        return this.epsilon;
+    }
+
+    /**
+     * Returns the probability that an approximate estimate exceeds its error.
+     *
+     * @return the probability
+     */
+    public double delta() {
+        return this.delta;
+    }
+
+    /**
+     * Reports whether the dictionary is kept outside the Java heap.
+     *
+     * @return true iff the dictionary is kept off the heap
+     */
+    public boolean offHeap() {
+        return this.offHeap;
+    }
+
+    /**
+     * Returns the length of the sliding window.
+     *
+     * @return the length in milliseconds, or 0 to count the whole input
+     */
+    public long windowMillis() {
+        return this.windowMillis;
+    }
+
+    /**
+     * Returns the number of slices of the sliding window.
+     *
+     * @return the number of slices
+     */
+    public int slices() {
+        return this.slices;
+    }
+
+    /**
+     * Returns the number of words in a phrase of a phrase cloud.
+     *
+     * @return the number of words, or 0 for a word cloud
+     */
+    public int ngram() {
+        return this.ngram;
+    }
+
+    /**
+     * Returns the memory budget of external counting.
+     *
+     * @return the budget in megabytes, or 0 to count in memory
+     */
+    public int memoryMegabytes() {
+        return this.memoryMegabytes;
+    }
+
+    /**
+     * Returns the directory of the counts spilled by external counting.
+     *
+     * @return the spill directory
+     */
+    public String spillDirectory() {
+        return this.spillDirectory;
+    }
+
+    /**
+     * Returns the locale whose case rules fold words to lowercase.
+     *
+     * @return the locale
+     */
+    public Locale foldLocale() {
+        return this.foldLocale;
+    }
+
+    /**
+     * Returns the files of stop words.
+     *
+     * @return the stop word files, possibly empty
+     */
+    public List<String> stopWordFiles() {
+        return this.stopWordFiles;
+    }
+
+    /**
+     * Returns the length of the shortest word counted.
+     *
+     * @return the minimum length
+     */
+    public int minLength() {
+        return this.minLength;
+    }
+
+    /**
+     * Returns the length of the longest word counted.
+     *
+     * @return the maximum length
+     */
+    public int maxLength() {
+        return this.maxLength;
+    }
+
+    /**
+     * Reports whether words made only of digits are dropped.
+     *
+     * @return true iff numbers are dropped
+     */
+    public boolean dropNumbers() {
+        return this.dropNumbers;
+    }
+
+    /**
+     * Returns how counts are spread over the font sizes.
+     *
+     * @return the curve
+     */
+    public FontScale.Curve fontCurve() {
+        return this.fontCurve;
+    }
+
+    /**
+     * Returns the file of separator characters.
+     *
+     * @return the separator file, or null for the default separators
+     */
+    public String separatorFile() {
+        return this.separatorFile;
+    }
+
+    /**
+     * Returns the port clouds are served on.
+     *
+     * @return the port, or -1 if no server is run
+     */
+    public int port() {
+        return this.port;
+    }
+
+    /**
+     * Returns the size of the cache of served pages.
+     *
+     * @return the size, in megabytes
+     */
+    public int cacheMegabytes() {
+        return this.cacheMegabytes;
+    }
+
+    /**
+     * Returns the directory whose files the server may read.
+     *
+     * @return the directory, or null if the server reads no files
+     */
+    public String serveRoot() {
+        return this.serveRoot;
+    }
+
+    /**
+     * Reports whether the run counters are printed.
+     *
+     * @return true iff the counters are printed
+     */
+    public boolean metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Returns the file the run counters are written to as JSON.
+     *
+     * @return the file, or null
+     */
+    public String metricsJson() {
+        return this.metricsJson;
+    }
+
+}
@@ -0,0 +1,572 @@
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves tag clouds over HTTP from one long-running JVM, so each cloud pays
+ * neither JVM startup nor JIT warmup. Rendered pages are cached by the
+ * SHA-256 hash of the text, the number of words and the title, in a
+ * least-recently-used cache bounded by its total size; a repeated request is
+ * answered from memory without counting anything.
+ *
+ * <pre>
+ * POST /cloud?n=N[&amp;title=T]  the cloud of the UTF-8 request body
+ * GET  /cloud?file=PATH&amp;n=N   the cloud of a file under --serve-root
+ * GET  /metrics                the run counters as JSON
+ * </pre>
+ *
+ * <p>
+ * The server listens on the loopback interface only, and answers only
+ * requests whose {@code Host} header names it as a loopback host, so a web
+ * page whose domain was rebound to 127.0.0.1 cannot query it from the
+ * user's browser. Files are read only when {@code --serve-root} is given,
+ * and only below that directory. Requests are handled on virtual threads when the JDK has
+ * them and on a cached thread pool otherwise; the counting options
+ * ({@code --threads}, {@code --mmap}, the filters) apply to every request.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class TagCloudServer {
+
+    /**
+     * Rendered pages by key, least recently used first, bounded by their
+     * total size.
+     */
+    private static final class PageCache {
+
+        /**
+         * Largest total size of the cached pages, in bytes.
+         */
+        private final long capacity;
+
+        /**
+         * Total size of the cached pages, in bytes.
+         */
+        private long size;
+
+        /**
+         * The pages, in access order.
+         */
+        private final LinkedHashMap<String, byte[]> pages =
+                new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * Creates an empty cache holding at most {@code capacity} bytes.
+         *
+         * @param capacity
+         *            the largest total size of the pages
+         */
+        PageCache(long capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Returns the page cached under {@code key}, marking it as used.
+         *
+         * @param key
+         *            the key
+         * @return the page, or null if it is not cached
+         */
+        synchronized byte[] get(String key) {
+            return this.pages.get(key);
+        }
+
+        /**
+         * Caches {@code page} under {@code key}, dropping the least recently
+         * used pages until the cache fits its capacity. A page larger than
+         * the whole cache is not cached.
+         *
+         * @param key
+         *            the key
+         * @param page
+         *            the rendered page
+         */
+        synchronized void put(String key, byte[] page) {
+            if (page.length > this.capacity) {
+                return;
+            }
+            byte[] previous = this.pages.put(key, page);
+            if (previous != null) {
+                this.size -= previous.length;
+            }
+            this.size += page.length;
+            Iterator<byte[]> eldest = this.pages.values().iterator();
+            while (this.size > this.capacity) {
+                this.size -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Largest request body accepted, in bytes.
+     */
+    private static final int MAX_UPLOAD = 64 << 20;
+
+    /**
+     * Size of the buffer a file is hashed through.
+     */
+    private static final int HASH_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Bytes per megabyte, for the cache size option.
+     */
+    private static final long MEGABYTE = 1 << 20;
+
+    /**
+     * Run-time counters of every stage.
+     */
+    private static final Metrics METRICS = Metrics.global();
+
+    /**
+     * Host names of the loopback interface accepted in the {@code Host}
+     * header.
+     */
+    private static final Set<String> LOOPBACK_HOSTS = Set.of("localhost",
+            "127.0.0.1", "[::1]");
+
+    /**
+     * Options applied to the counting of every request.
+     */
+    private final TagCloudOptions options;
+
+    /**
+     * The rendered pages.
+     */
+    private final PageCache cache;
+
+    /**
+     * The real path of the directory whose files may be read, or null if no
+     * file may be.
+     */
+    private final Path root;
+
+    /**
+     * Creates a server counting words as {@code options} say.
+     *
+     * @param options
+     *            the command line options
+     * @throws IOException
+     *             if the directory of {@code --serve-root} does not exist
+     */
+    private TagCloudServer(TagCloudOptions options) throws IOException {
+        this.options = options;
+        this.cache = new PageCache(options.cacheMegabytes() * MEGABYTE);
+        Path serveRoot = null;
+        if (options.serveRoot() != null) {
+            serveRoot = Paths.get(options.serveRoot()).toRealPath();
+        }
+        this.root = serveRoot;
+    }
+
+    /**
+     * Returns an executor running each task on a new virtual thread, or a
+     * cached thread pool on a JDK without virtual threads.
+     *
+     * @return the executor
+     */
+    private static ExecutorService executor() {
+        ExecutorService result;
+        try {
+            Method virtual = Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor");
+            result = (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            result = Executors.newCachedThreadPool(Metrics.threadFactory());
+        }
+        return result;
+    }
+
+    /**
+     * Starts serving clouds on the port given by {@code options}, or on any
+     * free port for port 0, and prints the address served.
+     *
+     * @param options
+     *            the command line options
+     * @return the running server
+     * @throws IOException
+     *             if the port cannot be bound or the directory of
+     *             {@code --serve-root} does not exist
+     */
+    public static HttpServer start(TagCloudOptions options)
+            throws IOException {
+        assert options != null : "Violation of: options is not null";
+
+        TagCloudServer handler = new TagCloudServer(options);
+        HttpServer server = HttpServer.create(new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), options.port()), 0);
+        server.createContext("/cloud", handler::cloud);
+        server.createContext("/metrics", handler::metrics);
+        server.setExecutor(executor());
+        server.start();
+        System.out.println("Serving tag clouds on http://"
+                + server.getAddress().getHostString() + ":"
+                + server.getAddress().getPort() + "/cloud");
+        return server;
+    }
+
+    /**
+     * Returns the parameters of the query of {@code exchange}.
+     *
+     * @param exchange
+     *            the request
+     * @return the decoded parameters by name
+     */
+    private static Map<String, String> parameters(HttpExchange exchange) {
+        Map<String, String> result = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    result.put(
+                            URLDecoder.decode(pair.substring(0, equals),
+                                    StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1),
+                                    StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sends {@code body} as the response to {@code exchange}.
+     *
+     * @param exchange
+     *            the request
+     * @param status
+     *            the HTTP status code
+     * @param type
+     *            the content type
+     * @param body
+     *            the response body
+     * @throws IOException
+     *             if sending fails
+     */
+    private static void send(HttpExchange exchange, int status, String type,
+            byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", type);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Sends {@code message} as a plain text error response.
+     *
+     * @param exchange
+     *            the request
+     * @param status
+     *            the HTTP status code
+     * @param message
+     *            the error message
+     * @throws IOException
+     *             if sending fails
+     */
+    private static void error(HttpExchange exchange, int status,
+            String message) throws IOException {
+        send(exchange, status, "text/plain; charset=UTF-8",
+                (message + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reports whether the {@code Host} header of {@code exchange} names a
+     * loopback host and the port the server listens on. A browser sends the
+     * name of the page's own domain, so this rejects pages whose domain was
+     * rebound to the loopback address.
+     *
+     * @param exchange
+     *            the request
+     * @return true iff the request may be answered
+     */
+    private static boolean hostAllowed(HttpExchange exchange) {
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        boolean result = false;
+        if (host != null) {
+            String name = host;
+            String port = null;
+            int colon = host.lastIndexOf(':');
+            if (colon > host.lastIndexOf(']')) {
+                name = host.substring(0, colon);
+                port = host.substring(colon + 1);
+            }
+            result = LOOPBACK_HOSTS.contains(name.toLowerCase(Locale.ROOT))
+                    && (port == null || port.equals(Integer.toString(
+                            exchange.getLocalAddress().getPort())));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a digest computing SHA-256, which every JDK provides.
+     *
+     * @return the digest
+     */
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the cache key of the cloud of {@code wordNum} words titled
+     * {@code title} of the text with SHA-256 hash {@code hash}.
+     *
+     * @param hash
+     *            the hash of the text
+     * @param wordNum
+     *            the number of words
+     * @param title
+     *            the title of the page
+     * @return the key
+     */
+    private static String key(byte[] hash, int wordNum, String title) {
+        StringBuilder key = new StringBuilder(2 * hash.length + 16);
+        for (byte b : hash) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.append(' ').append(wordNum).append(' ').append(title)
+                .toString();
+    }
+
+    /**
+     * Returns the SHA-256 hash of the file {@code fileName}.
+     *
+     * @param fileName
+     *            the file
+     * @return the hash
+     * @throws IOException
+     *             if reading the file fails
+     */
+    private static byte[] hashFile(String fileName) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(Paths.get(fileName))) {
+            int read = in.read(buffer);
+            while (read >= 0) {
+                digest.update(buffer, 0, read);
+                read = in.read(buffer);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Renders the cloud of {@code wordNum} words of {@code counter}.
+     *
+     * @param counter
+     *            the counted words
+     * @param wordNum
+     *            the number of words
+     * @param title
+     *            the title of the page
+     * @return the page, as UTF-8
+     */
+    private static byte[] page(WordCounter counter, int wordNum,
+            String title) {
+        CloudRenderer renderer = new CloudRenderer();
+        TagCloud10.render(counter, wordNum, title, renderer);
+        return renderer.toByteArray();
+    }
+
+    /**
+     * Handles a request for a cloud.
+     *
+     * @param exchange
+     *            the request
+     * @throws IOException
+     *             if sending the response fails
+     */
+    private void cloud(HttpExchange exchange) throws IOException {
+        try {
+            if (!hostAllowed(exchange)) {
+                error(exchange, 403, "Forbidden host");
+                return;
+            }
+            Map<String, String> parameters = parameters(exchange);
+            int wordNum = -1;
+            try {
+                wordNum = Integer.parseInt(parameters.getOrDefault("n", ""));
+            } catch (NumberFormatException e) {
+                wordNum = -1;
+            }
+            String file = parameters.get("file");
+            String method = exchange.getRequestMethod();
+            if (wordNum < 0) {
+                error(exchange, 400, "n must be a non-negative integer");
+            } else if (method.equals("GET") && file != null) {
+                this.fileCloud(exchange, file, wordNum);
+            } else if (method.equals("POST")) {
+                this.uploadCloud(exchange,
+                        parameters.getOrDefault("title", "upload"), wordNum);
+            } else {
+                error(exchange, 405, "POST text, or GET with file=PATH");
+            }
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            METRICS.error();
+            error(exchange, 404, "No such file: " + e.getMessage());
+        } catch (IOException e) {
+            METRICS.error();
+            error(exchange, 500, "Error: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Sends the cloud of {@code wordNum} words of the file {@code file}.
+     *
+     * @param exchange
+     *            the request
+     * @param file
+     *            the file name
+     * @param wordNum
+     *            the number of words
+     * @throws IOException
+     *             if reading the file or sending the response fails
+     */
+    private void fileCloud(HttpExchange exchange, String file, int wordNum)
+            throws IOException {
+        if (this.root == null) {
+            error(exchange, 403, "Reading files is disabled; start the "
+                    + "server with --serve-root DIR");
+            return;
+        }
+        //Resolves links too, so no path leads out of the root
+        Path path;
+        try {
+            path = this.root.resolve(file).toRealPath();
+        } catch (InvalidPathException e) {
+            path = null;
+        }
+        if (path == null || !path.startsWith(this.root)
+                || !Files.isRegularFile(path)) {
+            error(exchange, 403, "Not a file under the served root: " + file);
+            return;
+        }
+        String key = key(hashFile(path.toString()), wordNum, file);
+        byte[] page = this.cache.get(key);
+        boolean hit = page != null;
+        if (!hit) {
+            WordCounter counter = new WordCounter();
+            TagCloud10.countFile(path.toString(), this.options, counter);
+            page = page(counter, wordNum, file);
+            this.cache.put(key, page);
+        }
+        this.sendPage(exchange, page, hit);
+    }
+
+    /**
+     * Sends the cloud of {@code wordNum} words of the request body.
+     *
+     * @param exchange
+     *            the request
+     * @param title
+     *            the title of the page
+     * @param wordNum
+     *            the number of words
+     * @throws IOException
+     *             if reading the request or sending the response fails
+     */
+    private void uploadCloud(HttpExchange exchange, String title,
+            int wordNum) throws IOException {
+        byte[] text;
+        try (InputStream in = exchange.getRequestBody()) {
+            text = in.readNBytes(MAX_UPLOAD + 1);
+        }
+        if (text.length > MAX_UPLOAD) {
+            error(exchange, 413, "Text larger than " + MAX_UPLOAD + " bytes");
+            return;
+        }
+        String key = key(sha256().digest(text), wordNum, title);
+        byte[] page = this.cache.get(key);
+        boolean hit = page != null;
+        if (!hit) {
+            WordCounter counter = new WordCounter();
+            TagCloud10.countText(new InputStreamReader(
+                    new ByteArrayInputStream(text), StandardCharsets.UTF_8),
+                    counter);
+            METRICS.file(text.length);
+            page = page(counter, wordNum, title);
+            this.cache.put(key, page);
+        }
+        this.sendPage(exchange, page, hit);
+    }
+
+    /**
+     * Sends {@code page}, telling whether it came from the cache.
+     *
+     * @param exchange
+     *            the request
+     * @param page
+     *            the rendered page
+     * @param hit
+     *            whether the page was cached
+     * @throws IOException
+     *             if sending fails
+     */
+    private void sendPage(HttpExchange exchange, byte[] page, boolean hit)
+            throws IOException {
+        String cacheHeader = "MISS";
+        if (hit) {
+            cacheHeader = "HIT";
+        }
+        exchange.getResponseHeaders().set("X-Cache", cacheHeader);
+        send(exchange, 200, "text/html; charset=UTF-8", page);
+    }
+
+    /**
+     * Handles a request for the run counters.
+     *
+     * @param exchange
+     *            the request
+     * @throws IOException
+     *             if sending the response fails
+     */
+    private void metrics(HttpExchange exchange) throws IOException {
+        try {
+            if (hostAllowed(exchange)) {
+                send(exchange, 200, "application/json",
+                        METRICS.toJson().getBytes(StandardCharsets.UTF_8));
+            } else {
+                error(exchange, 403, "Forbidden host");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+}
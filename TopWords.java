@@ -0,0 +1,177 @@
+/**
+ * Selects the highest-ranked words of a {@code WordCounter}, or of any
+ * other {@code TopWords.Counts}, with a bounded min-heap of word ids. Words
+ * are ranked by descending count, ties broken in lexicographic order, so the
+ * selection is deterministic. Selecting {@code k} of {@code V} words takes
+ * O(V log k) time and O(k) extra space.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class TopWords {
+
+    /**
+     * Counted words identified by dense ids in {@code [0, size())}.
+     */
+    public interface Counts {
+
+        /**
+         * Returns the number of distinct words.
+         *
+         * @return the number of distinct words
+         */
+        int size();
+
+        /**
+         * Returns the count of word {@code id}.
+         *
+         * @param id
+         *            the word id
+         * @return the count
+         * @requires 0 <= id < size()
+         */
+        int count(int id);
+
+        /**
+         * Compares words {@code a} and {@code b} in the same order as
+         * {@code String.compareTo}.
+         *
+         * @param a
+         *            the first word id
+         * @param b
+         *            the second word id
+         * @return negative, zero or positive as word {@code a} is less than,
+         *         equal to or greater than word {@code b}
+         * @requires 0 <= a < size() and 0 <= b < size()
+         */
+        int compareWords(int a, int b);
+    }
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private TopWords() {
+    }
+
+    /**
+     * Reports whether word {@code a} ranks ahead of word {@code b}: it has a
+     * higher count, or the same count and comes first alphabetically. This
+     * is the order {@code select} ranks words in.
+     *
+     * @param counter
+     *            the counter the ids belong to
+     * @param a
+     *            the first word id
+     * @param b
+     *            the second word id
+     * @return true iff {@code a} ranks ahead of {@code b}
+     */
+    public static boolean ranksAhead(Counts counter, int a, int b) {
+        int countA = counter.count(a);
+        int countB = counter.count(b);
+        return countA > countB
+                || (countA == countB && counter.compareWords(a, b) < 0);
+    }
+
+    /**
+     * Restores the heap property below {@code index}, where the root of the
+     * heap is the lowest-ranked id.
+     *
+     * @param counter
+     *            the counter the ids belong to
+     * @param heap
+     *            the heap of ids
+     * @param size
+     *            number of ids in the heap
+     * @param index
+     *            the index to sift down from
+     */
+    private static void siftDown(Counts counter, int[] heap, int size,
+            int index) {
+        int i = index;
+        int id = heap[i];
+        int child = 2 * i + 1;
+        while (child < size) {
+            //Picks the lower-ranked of the two children
+            if (child + 1 < size
+                    && ranksAhead(counter, heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!ranksAhead(counter, id, heap[child])) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+            child = 2 * i + 1;
+        }
+        heap[i] = id;
+    }
+
+    /**
+     * Restores the heap property above {@code index}.
+     *
+     * @param counter
+     *            the counter the ids belong to
+     * @param heap
+     *            the heap of ids
+     * @param index
+     *            the index to sift up from
+     */
+    private static void siftUp(Counts counter, int[] heap, int index) {
+        int i = index;
+        int id = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!ranksAhead(counter, heap[parent], id)) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = id;
+    }
+
+    /**
+     * Returns the ids of the {@code k} highest-ranked words of
+     * {@code counter}, best first. Fewer ids are returned if the counter holds
+     * fewer than {@code k} words.
+     *
+     * @param counter
+     *            the counted words
+     * @param k
+     *            number of words to select
+     * @return the selected ids in rank order
+     * @requires 0 <= k
+     * @ensures |select| = min(k, counter.size())
+     */
+    public static int[] select(Counts counter, int k) {
+        assert counter != null : "Violation of: counter is not null";
+        assert 0 <= k : "Violation of: 0 <= k";
+
+        int[] heap = new int[Math.min(k, counter.size())];
+        int size = 0;
+        for (int id = 0; id < counter.size(); id++) {
+            if (size < heap.length) {
+                heap[size] = id;
+                siftUp(counter, heap, size);
+                size++;
+            } else if (size > 0 && ranksAhead(counter, id, heap[0])) {
+                //Replaces the lowest-ranked word kept so far
+                heap[0] = id;
+                siftDown(counter, heap, size, 0);
+            }
+        }
+
+        //Pops the lowest-ranked id into the last free position each time, so
+        //the array ends up best first
+        while (size > 1) {
+            size--;
+            int last = heap[size];
+            heap[size] = heap[0];
+            heap[0] = last;
+            siftDown(counter, heap, size, 0);
+        }
+        return heap;
+    }
+
+}
@@ -0,0 +1,324 @@
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Counts the words of a timestamped stream over a sliding time window, such
+ * as the last five minutes of a log. The window is split into slices of equal
+ * length kept in a ring, each with its own {@code WordCounter}, and one more
+ * counter holds the sum of every slice. When time moves past a slice, the
+ * counts of its words are subtracted from the sum and the slice is cleared
+ * for reuse, so the words of the window are always counted in the sum and
+ * its cloud can be rendered at any moment without counting anything again.
+ *
+ * <p>
+ * A word whose count drops to zero stays in the sum until too many such
+ * words accumulate, when the sum is rebuilt from the slices. Lines are
+ * expected in time order; a line older than the newest slice is counted in
+ * the newest slice.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class WindowedCounter implements WordTokenizer.WordSink {
+
+    /**
+     * Number of words at zero count tolerated in the sum before it is
+     * rebuilt, beyond the number of words counted.
+     */
+    private static final int SLACK = 1 << 12;
+
+    /**
+     * Number of digits of an epoch-milliseconds timestamp, which covers the
+     * years 2001 to 2286; shorter numbers, such as status codes or years,
+     * are words of the text.
+     */
+    private static final int EPOCH_MILLIS_DIGITS = 13;
+
+    /**
+     * The counts of each slice, in a ring.
+     */
+    private final WordCounter[] slices;
+
+    /**
+     * Length of a slice, in milliseconds.
+     */
+    private final long sliceMillis;
+
+    /**
+     * Index of the newest slice in {@code slices}.
+     */
+    private int head;
+
+    /**
+     * Number of the newest slice: its start time divided by
+     * {@code sliceMillis}.
+     */
+    private long current = Long.MIN_VALUE;
+
+    /**
+     * The sum of the counts of every slice.
+     */
+    private final WordCounter window = new WordCounter();
+
+    /**
+     * Number of words with a positive count in {@code window}.
+     */
+    private int live;
+
+    /**
+     * Holds the characters of a word being evicted.
+     */
+    private char[] scratch = new char[64];
+
+    /**
+     * Creates an empty counter over a window of {@code windowMillis}
+     * milliseconds split into {@code sliceCount} slices.
+     *
+     * @param windowMillis
+     *            the length of the window
+     * @param sliceCount
+     *            the number of slices
+     * @requires 0 < sliceCount <= windowMillis
+     */
+    public WindowedCounter(long windowMillis, int sliceCount) {
+        assert 0 < sliceCount : "Violation of: 0 < sliceCount";
+        assert sliceCount <= windowMillis : "Violation of: "
+                + "sliceCount <= windowMillis";
+
+        this.slices = new WordCounter[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            this.slices[i] = new WordCounter();
+        }
+        this.sliceMillis = (windowMillis + sliceCount - 1) / sliceCount;
+    }
+
+    /**
+     * Returns the time in milliseconds of the timestamp {@code text}: epoch
+     * milliseconds of exactly {@code EPOCH_MILLIS_DIGITS} digits, an ISO-8601
+     * date and time with an offset, or an ISO-8601 local date and time in the
+     * default time zone, with {@code T} or a space between date and time.
+     *
+     * @param text
+     *            the text to parse
+     * @return the time, or {@code Long.MIN_VALUE} if {@code text} is not a
+     *         timestamp
+     */
+    private static long parse(String text) {
+        long time = Long.MIN_VALUE;
+        //Every accepted form starts with a digit; this rejects the lines
+        //without a timestamp before any parsing
+        if (text.isEmpty() || !Character.isDigit(text.charAt(0))) {
+            return time;
+        }
+        try {
+            if (text.chars().allMatch(Character::isDigit)) {
+                if (text.length() == EPOCH_MILLIS_DIGITS) {
+                    time = Long.parseLong(text);
+                }
+            } else {
+                String iso = text.replace(' ', 'T');
+                if (iso.endsWith("Z")) {
+                    time = Instant.parse(iso).toEpochMilli();
+                } else if (iso.indexOf('+', iso.indexOf('T')) > 0
+                        || iso.lastIndexOf('-') > iso.indexOf('T')) {
+                    time = OffsetDateTime.parse(iso).toInstant()
+                            .toEpochMilli();
+                } else {
+                    time = LocalDateTime.parse(iso)
+                            .atZone(ZoneId.systemDefault()).toInstant()
+                            .toEpochMilli();
+                }
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            time = Long.MIN_VALUE;
+        }
+        return time;
+    }
+
+    /**
+     * Returns the end of the white-space separated field of {@code line}
+     * starting at {@code start}.
+     *
+     * @param line
+     *            the line
+     * @param start
+     *            index of the first character of the field
+     * @return index one past the last character of the field
+     */
+    private static int fieldEnd(String line, int start) {
+        int end = start;
+        while (end < line.length()
+                && !Character.isWhitespace(line.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Moves the window to the timestamp at the start of {@code line}, if it
+     * has one, and returns where the text of the line starts. The timestamp
+     * is the first field of the line, or its first two when the first is a
+     * date.
+     *
+     * @param line
+     *            the line
+     * @return index of the first character after the timestamp, or 0 if the
+     *         line has none
+     * @updates this
+     */
+    public int advance(String line) {
+        assert line != null : "Violation of: line is not null";
+
+        final int dateLength = "yyyy-mm-dd".length();
+        int end = fieldEnd(line, 0);
+        if (end == dateLength && end < line.length()
+                && line.charAt(4) == '-') {
+            end = fieldEnd(line, end + 1);
+        }
+        int result = 0;
+        long time = parse(line.substring(0, end));
+        if (time != Long.MIN_VALUE) {
+            this.advance(time);
+            result = end;
+        }
+        return result;
+    }
+
+    /**
+     * Moves the window so that its newest slice holds {@code time}, evicting
+     * the slices that fall out of it.
+     *
+     * @param time
+     *            the time in milliseconds
+     * @return true iff a new slice was started
+     * @updates this
+     */
+    public boolean advance(long time) {
+        long slice = Math.floorDiv(time, this.sliceMillis);
+        if (this.current == Long.MIN_VALUE) {
+            this.current = slice;
+            return true;
+        }
+        if (slice <= this.current) {
+            return false;
+        }
+        long steps = Math.min(slice - this.current, this.slices.length);
+        for (long i = 0; i < steps; i++) {
+            this.head = (this.head + 1) % this.slices.length;
+            this.evict(this.slices[this.head]);
+        }
+        this.current = slice;
+        if (this.window.size() > 2 * this.live + SLACK) {
+            this.rebuild();
+        }
+        return true;
+    }
+
+    /**
+     * Subtracts the counts of {@code slice} from the window and clears it.
+     *
+     * @param slice
+     *            the slice leaving the window
+     * @clears slice
+     */
+    private void evict(WordCounter slice) {
+        for (int id = 0; id < slice.size(); id++) {
+            int length = slice.wordLength(id);
+            if (length > this.scratch.length) {
+                this.scratch = new char[Math.max(length,
+                        2 * this.scratch.length)];
+            }
+            slice.getWordChars(id, this.scratch, 0);
+            int windowId = this.window.add(this.scratch, 0, length,
+                    -slice.count(id));
+            if (this.window.count(windowId) == 0) {
+                this.live--;
+            }
+        }
+        slice.clear();
+    }
+
+    /**
+     * Rebuilds the window from the slices, dropping the words whose count
+     * dropped to zero.
+     */
+    private void rebuild() {
+        this.window.clear();
+        for (WordCounter slice : this.slices) {
+            this.window.addAll(slice);
+        }
+        this.live = this.window.size();
+    }
+
+    /**
+     * Counts one occurrence of the word {@code chars[start, end)} in the
+     * newest slice.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @updates this
+     * @requires 0 <= start <= end <= |chars|
+     */
+    @Override
+    public void word(char[] chars, int start, int end) {
+        this.slices[this.head].add(chars, start, end, 1);
+        int id = this.window.add(chars, start, end, 1);
+        if (this.window.count(id) == 1) {
+            this.live++;
+        }
+    }
+
+    /**
+     * Returns the start time of the newest slice.
+     *
+     * @return the start time in milliseconds, or {@code Long.MIN_VALUE} if no
+     *         time has been seen
+     */
+    public long sliceStart() {
+        long result = Long.MIN_VALUE;
+        if (this.current != Long.MIN_VALUE) {
+            result = this.current * this.sliceMillis;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct words in the window.
+     *
+     * @return the number of words counted in the window
+     */
+    public int liveWords() {
+        return this.live;
+    }
+
+    /**
+     * Renders the cloud of the {@code wordNum} most frequent words of the
+     * window into {@code renderer}, as {@code TagCloud10.render} does.
+     *
+     * @param wordNum
+     *            number of words to include
+     * @param title
+     *            the name shown on the page
+     * @param renderer
+     *            the renderer to append the page to
+     * @updates renderer
+     * @requires 0 <= wordNum
+     */
+    public void render(int wordNum, String title, CloudRenderer renderer) {
+        assert 0 <= wordNum : "Violation of: 0 <= wordNum";
+
+        //Words at zero count rank after every counted word, so they are
+        //never selected when no more than the counted words are asked for
+        TagCloud10.render(this.window, Math.min(wordNum, this.live), title,
+                renderer);
+    }
+
+}
@@ -0,0 +1,592 @@
+import java.util.Arrays;
+
+/**
+ * Counts words with an open-addressing hash table keyed by {@code char}
+ * ranges. Each distinct word is stored once in a shared {@code char} pool and
+ * identified by a dense id in {@code [0, size())}; counting a word that has
+ * already been seen increments a primitive {@code int} in place, without
+ * creating a {@code String} or boxing the count.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class WordCounter
+        implements TopWords.Counts, WordTokenizer.WordSink {
+
+    /**
+     * Initial number of hash slots; always a power of two.
+     */
+    private static final int INITIAL_SLOTS = 1024;
+
+    /**
+     * Initial number of word ids.
+     */
+    private static final int INITIAL_WORDS = INITIAL_SLOTS / 2;
+
+    /**
+     * Initial size of the character pool.
+     */
+    private static final int INITIAL_POOL = 8 * INITIAL_WORDS;
+
+    /**
+     * Hash slots holding {@code id + 1}, or 0 when empty.
+     */
+    private int[] slots;
+
+    /**
+     * Hash of each word, by id.
+     */
+    private int[] hashes;
+
+    /**
+     * Offset of each word in {@code pool}, by id.
+     */
+    private int[] offsets;
+
+    /**
+     * Length of each word, by id.
+     */
+    private int[] lengths;
+
+    /**
+     * Count of each word, by id.
+     */
+    private int[] counts;
+
+    /**
+     * Characters of all distinct words, stored back to back.
+     */
+    private char[] pool;
+
+    /**
+     * Number of characters used in {@code pool}.
+     */
+    private int poolSize;
+
+    /**
+     * Number of distinct words.
+     */
+    private int size;
+
+    /**
+     * Sum of all counts.
+     */
+    private long total;
+
+    /**
+     * Creates an empty counter.
+     */
+    public WordCounter() {
+        this.slots = new int[INITIAL_SLOTS];
+        this.hashes = new int[INITIAL_WORDS];
+        this.offsets = new int[INITIAL_WORDS];
+        this.lengths = new int[INITIAL_WORDS];
+        this.counts = new int[INITIAL_WORDS];
+        this.pool = new char[INITIAL_POOL];
+    }
+
+    /**
+     * Returns the hash of {@code chars[start, end)}.
+     *
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @return the hash
+     */
+    private static int hash(char[] chars, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + chars[i];
+        }
+        //Spreads the high bits down since slots are picked with a mask
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Reports whether word {@code id} equals {@code chars[start, end)}.
+     *
+     * @param id
+     *            the word id
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @return true iff the word equals the range
+     */
+    private boolean matches(int id, char[] chars, int start, int end) {
+        int length = end - start;
+        if (this.lengths[id] != length) {
+            return false;
+        }
+        int offset = this.offsets[id];
+        for (int i = 0; i < length; i++) {
+            if (this.pool[offset + i] != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the slot holding {@code chars[start, end)}, or the empty slot
+     * where it would be inserted.
+     *
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param h
+     *            hash of the range
+     * @return the slot index
+     */
+    private int find(char[] chars, int start, int end, int h) {
+        int mask = this.slots.length - 1;
+        int slot = h & mask;
+        int entry = this.slots[slot];
+        while (entry != 0) {
+            int id = entry - 1;
+            if (this.hashes[id] == h && this.matches(id, chars, start, end)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+            entry = this.slots[slot];
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the hash table and reinserts every id.
+     */
+    private void rehash() {
+        int[] newSlots = new int[this.slots.length * 2];
+        int mask = newSlots.length - 1;
+        for (int id = 0; id < this.size; id++) {
+            int slot = this.hashes[id] & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id + 1;
+        }
+        this.slots = newSlots;
+    }
+
+    /**
+     * Stores {@code chars[start, end)} as a new word and returns its id.
+     *
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param h
+     *            hash of the range
+     * @return the new id
+     */
+    private int store(char[] chars, int start, int end, int h) {
+        int id = this.size;
+        if (id == this.counts.length) {
+            int capacity = id * 2;
+            this.hashes = Arrays.copyOf(this.hashes, capacity);
+            this.offsets = Arrays.copyOf(this.offsets, capacity);
+            this.lengths = Arrays.copyOf(this.lengths, capacity);
+            this.counts = Arrays.copyOf(this.counts, capacity);
+        }
+        int length = end - start;
+        if (this.poolSize + length > this.pool.length) {
+            this.pool = Arrays.copyOf(this.pool,
+                    Math.max(this.pool.length * 2, this.poolSize + length));
+        }
+        System.arraycopy(chars, start, this.pool, this.poolSize, length);
+        this.hashes[id] = h;
+        this.offsets[id] = this.poolSize;
+        this.lengths[id] = length;
+        this.counts[id] = 0;
+        this.poolSize += length;
+        this.size++;
+        return id;
+    }
+
+    /**
+     * Adds {@code delta} to the count of the word {@code chars[start, end)},
+     * adding the word first if it is new.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param delta
+     *            the amount to add
+     * @return the id of the word
+     * @updates this
+     * @requires 0 <= start <= end <= |chars|
+     */
+    public int add(char[] chars, int start, int end, int delta) {
+        assert chars != null : "Violation of: chars is not null";
+        assert 0 <= start : "Violation of: 0 <= start";
+        assert start <= end : "Violation of: start <= end";
+        assert end <= chars.length : "Violation of: end <= |chars|";
+
+        int h = hash(chars, start, end);
+        int slot = this.find(chars, start, end, h);
+        int entry = this.slots[slot];
+        int id;
+        if (entry != 0) {
+            id = entry - 1;
+        } else {
+            id = this.store(chars, start, end, h);
+            this.slots[slot] = id + 1;
+            //Keeps the table at most half full so probe chains stay short
+            if (2 * this.size > this.slots.length) {
+                this.rehash();
+            }
+        }
+        this.counts[id] += delta;
+        this.total += delta;
+        return id;
+    }
+
+    /**
+     * Counts one occurrence of the word {@code chars[start, end)}.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @return the id of the word
+     * @updates this
+     * @requires 0 <= start <= end <= |chars|
+     */
+    public int add(char[] chars, int start, int end) {
+        return this.add(chars, start, end, 1);
+    }
+
+    /**
+     * Counts one occurrence of the word {@code chars[start, end)}, as a
+     * {@code WordTokenizer.WordSink}.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @updates this
+     * @requires 0 <= start <= end <= |chars|
+     */
+    @Override
+    public void word(char[] chars, int start, int end) {
+        this.add(chars, start, end, 1);
+    }
+
+    /**
+     * Adds {@code delta} to the count of {@code word}.
+     *
+     * @param word
+     *            the word
+     * @param delta
+     *            the amount to add
+     * @return the id of the word
+     * @updates this
+     */
+    public int add(String word, int delta) {
+        assert word != null : "Violation of: word is not null";
+
+        char[] chars = word.toCharArray();
+        return this.add(chars, 0, chars.length, delta);
+    }
+
+    /**
+     * Adds every word and count of {@code other} to this counter.
+     *
+     * @param other
+     *            the counter to merge in
+     * @updates this
+     */
+    public void addAll(WordCounter other) {
+        assert other != null : "Violation of: other is not null";
+
+        for (int id = 0; id < other.size; id++) {
+            int offset = other.offsets[id];
+            this.add(other.pool, offset, offset + other.lengths[id],
+                    other.counts[id]);
+        }
+    }
+
+    /**
+     * Returns the id of the word {@code chars[start, end)}, or -1 if it has
+     * not been added.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @return the id of the word, or -1
+     * @requires 0 <= start <= end <= |chars|
+     */
+    public int indexOf(char[] chars, int start, int end) {
+        assert chars != null : "Violation of: chars is not null";
+
+        int entry = this.slots[this.find(chars, start, end,
+                hash(chars, start, end))];
+        return entry - 1;
+    }
+
+    /**
+     * Returns the number of distinct words.
+     *
+     * @return the number of distinct words
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the sum of all counts.
+     *
+     * @return the total count
+     */
+    public long total() {
+        return this.total;
+    }
+
+    /**
+     * Returns the count of word {@code id}.
+     *
+     * @param id
+     *            the word id
+     * @return the count
+     * @requires 0 <= id < size()
+     */
+    @Override
+    public int count(int id) {
+        assert 0 <= id && id < this.size : "Violation of: id is valid";
+
+        return this.counts[id];
+    }
+
+    /**
+     * Returns word {@code id} as a {@code String}.
+     *
+     * @param id
+     *            the word id
+     * @return the word
+     * @requires 0 <= id < size()
+     */
+    public String word(int id) {
+        assert 0 <= id && id < this.size : "Violation of: id is valid";
+
+        return new String(this.pool, this.offsets[id], this.lengths[id]);
+    }
+
+    /**
+     * Returns the length of word {@code id}.
+     *
+     * @param id
+     *            the word id
+     * @return the number of characters in the word
+     * @requires 0 <= id < size()
+     */
+    public int wordLength(int id) {
+        assert 0 <= id && id < this.size : "Violation of: id is valid";
+
+        return this.lengths[id];
+    }
+
+    /**
+     * Copies the characters of word {@code id} into {@code dst}, starting at
+     * {@code dstBegin}, without creating a {@code String}.
+     *
+     * @param id
+     *            the word id
+     * @param dst
+     *            the destination array
+     * @param dstBegin
+     *            the index of the first character in {@code dst}
+     * @requires 0 <= id < size() and dstBegin + wordLength(id) <= |dst|
+     */
+    public void getWordChars(int id, char[] dst, int dstBegin) {
+        assert 0 <= id && id < this.size : "Violation of: id is valid";
+
+        System.arraycopy(this.pool, this.offsets[id], dst, dstBegin,
+                this.lengths[id]);
+    }
+
+    /**
+     * Compares words {@code a} and {@code b} in the same order as
+     * {@code String.compareTo}.
+     *
+     * @param a
+     *            the first word id
+     * @param b
+     *            the second word id
+     * @return negative, zero or positive as word {@code a} is less than, equal
+     *         to or greater than word {@code b}
+     * @requires 0 <= a < size() and 0 <= b < size()
+     */
+    @Override
+    public int compareWords(int a, int b) {
+        int offsetA = this.offsets[a];
+        int offsetB = this.offsets[b];
+        int lengthA = this.lengths[a];
+        int lengthB = this.lengths[b];
+        int length = Math.min(lengthA, lengthB);
+        for (int i = 0; i < length; i++) {
+            char chA = this.pool[offsetA + i];
+            char chB = this.pool[offsetB + i];
+            if (chA != chB) {
+                return chA - chB;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    /**
+     * Returns every word id, sorted in {@code compareWords} order.
+     *
+     * @return the sorted ids
+     */
+    public int[] sortedIds() {
+        int[] ids = new int[this.size];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = id;
+        }
+        this.sortWords(ids);
+        return ids;
+    }
+
+    /**
+     * Sorts the word ids {@code ids} in {@code compareWords} order, in place.
+     *
+     * @param ids
+     *            the ids to sort
+     * @updates ids
+     * @requires every id in ids is in [0, size())
+     */
+    public void sortWords(int[] ids) {
+        assert ids != null : "Violation of: ids is not null";
+
+        this.sortIds(ids, 0, ids.length - 1);
+    }
+
+    /**
+     * Sorts {@code ids[low, high]} in {@code compareWords} order with
+     * quicksort, recursing on the smaller part only so the stack stays
+     * logarithmic.
+     *
+     * @param ids
+     *            the ids to sort
+     * @param low
+     *            index of the first id to sort
+     * @param high
+     *            index of the last id to sort
+     */
+    private void sortIds(int[] ids, int low, int high) {
+        final int insertionLimit = 16;
+        int lo = low;
+        int hi = high;
+        while (hi - lo >= insertionLimit) {
+            int pivot = ids[lo + (hi - lo) / 2];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (this.compareWords(ids[i], pivot) < 0) {
+                    i++;
+                }
+                while (this.compareWords(ids[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    int t = ids[i];
+                    ids[i] = ids[j];
+                    ids[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (j - lo < hi - i) {
+                this.sortIds(ids, lo, j);
+                lo = i;
+            } else {
+                this.sortIds(ids, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            int id = ids[i];
+            int j = i - 1;
+            while (j >= lo && this.compareWords(ids[j], id) > 0) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = id;
+        }
+    }
+
+    /**
+     * Returns the number of bytes of the arrays this counter has allocated.
+     *
+     * @return the allocated bytes
+     */
+    public long memoryBytes() {
+        final int intsPerWord = 4;
+        return (long) Integer.BYTES
+                * (this.slots.length + intsPerWord * this.counts.length)
+                + (long) Character.BYTES * this.pool.length;
+    }
+
+    /**
+     * Returns the number of bytes of the arrays this counter would allocate
+     * to add a new word of {@code length} characters, 0 if it has room for
+     * it. The arrays being replaced are still allocated while they are
+     * copied, so the memory in use peaks at {@code memoryBytes()} plus this.
+     *
+     * @param length
+     *            the length of the new word
+     * @return the bytes to allocate
+     */
+    public long growthBytes(int length) {
+        final int intsPerWord = 4;
+        long bytes = 0;
+        if (this.size == this.counts.length) {
+            bytes += (long) Integer.BYTES * intsPerWord * 2
+                    * this.counts.length;
+        }
+        if (this.poolSize + length > this.pool.length) {
+            bytes += (long) Character.BYTES * Math.max(2L * this.pool.length,
+                    (long) this.poolSize + length);
+        }
+        if (2 * (this.size + 1) > this.slots.length) {
+            bytes += (long) Integer.BYTES * 2 * this.slots.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Removes every word, keeping the allocated storage for reuse.
+     *
+     * @clears this
+     */
+    public void clear() {
+        Arrays.fill(this.slots, 0);
+        this.poolSize = 0;
+        this.size = 0;
+        this.total = 0;
+    }
+
+}
@@ -0,0 +1,399 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes word counts in a compact, versioned binary format, so they
+ * can be computed once and later merged or rendered without tokenizing the
+ * text again.
+ *
+ * <pre>
+ * magic    4 bytes  "TCWC"
+ * version  1 byte   1
+ * words    varint   number of entries
+ * entries           sorted by word, each:
+ *   shared varint   bytes in common with the previous word's UTF-8 form
+ *   suffix varint   number of bytes that follow
+ *   bytes           the rest of the word, in UTF-8
+ *   count  varint   the count
+ * crc      4 bytes  CRC32 of everything above, big-endian
+ * </pre>
+ *
+ * <p>
+ * Varints are unsigned LEB128: seven bits per byte, least significant first,
+ * high bit set on every byte but the last. Since the words are sorted, front
+ * coding stores most of each word as a one-byte prefix length.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class WordCountsFile {
+
+    /**
+     * The magic number, "TCWC" in ASCII.
+     */
+    private static final int MAGIC = 0x54435743;
+
+    /**
+     * The format version written by this class.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Longest word written or read, in UTF-8 bytes; a longer one read means
+     * the file is corrupt, and is rejected before a buffer is allocated for
+     * it.
+     */
+    private static final int MAX_WORD_BYTES = 1 << 24;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private WordCountsFile() {
+    }
+
+    /**
+     * Writes {@code value} as an unsigned varint.
+     *
+     * @param out
+     *            the output stream
+     * @param value
+     *            the value, treated as unsigned
+     * @throws IOException
+     *             if writing fails
+     */
+    private static void writeVarint(OutputStream out, int value)
+            throws IOException {
+        int rest = value;
+        while ((rest & ~0x7F) != 0) {
+            out.write((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        out.write(rest);
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @param in
+     *            the input stream
+     * @return the value
+     * @throws IOException
+     *             if reading fails or the varint is too long or does not
+     *             fit in an {@code int}
+     */
+    private static int readVarint(InputStream in) throws IOException {
+        final int maxShift = 28;
+        final int lastBits = 0x0F;
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated word counts");
+            }
+            if (shift > maxShift
+                    || (shift == maxShift && (b & 0x7F) > lastBits)) {
+                throw new IOException("Malformed varint in word counts");
+            }
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Encodes {@code chars[0, length)} as UTF-8 into {@code bytes}, which must
+     * hold at least {@code 3 * length} bytes.
+     *
+     * @param chars
+     *            the characters
+     * @param length
+     *            the number of characters
+     * @param bytes
+     *            receives the encoding
+     * @return the number of bytes written
+     */
+    private static int encode(char[] chars, int length, byte[] bytes) {
+        int p = 0;
+        for (int i = 0; i < length; i++) {
+            char ch = chars[i];
+            if (ch < 0x80) {
+                bytes[p] = (byte) ch;
+                p++;
+            } else if (ch < 0x800) {
+                bytes[p] = (byte) (0xC0 | (ch >> 6));
+                bytes[p + 1] = (byte) (0x80 | (ch & 0x3F));
+                p += 2;
+            } else if (Character.isHighSurrogate(ch) && i + 1 < length
+                    && Character.isLowSurrogate(chars[i + 1])) {
+                int cp = Character.toCodePoint(ch, chars[i + 1]);
+                i++;
+                bytes[p] = (byte) (0xF0 | (cp >> 18));
+                bytes[p + 1] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                bytes[p + 2] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                bytes[p + 3] = (byte) (0x80 | (cp & 0x3F));
+                p += 4;
+            } else {
+                //Lone surrogates are kept as three-byte sequences so every
+                //word round-trips exactly
+                bytes[p] = (byte) (0xE0 | (ch >> 12));
+                bytes[p + 1] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+                bytes[p + 2] = (byte) (0x80 | (ch & 0x3F));
+                p += 3;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Decodes the UTF-8 in {@code bytes[0, length)}, as written by
+     * {@code encode}, into {@code chars}, which must hold at least
+     * {@code length} characters.
+     *
+     * @param bytes
+     *            the encoded word
+     * @param length
+     *            the number of bytes
+     * @param chars
+     *            receives the characters
+     * @return the number of characters written
+     * @throws IOException
+     *             if the bytes are not valid
+     */
+    private static int decode(byte[] bytes, int length, char[] chars)
+            throws IOException {
+        int n = 0;
+        int i = 0;
+        while (i < length) {
+            int b = bytes[i] & 0xFF;
+            int cp;
+            int size;
+            if (b < 0x80) {
+                cp = b;
+                size = 1;
+            } else if ((b & 0xE0) == 0xC0) {
+                cp = b & 0x1F;
+                size = 2;
+            } else if ((b & 0xF0) == 0xE0) {
+                cp = b & 0x0F;
+                size = 3;
+            } else if ((b & 0xF8) == 0xF0) {
+                cp = b & 0x07;
+                size = 4;
+            } else {
+                throw new IOException("Malformed word in word counts");
+            }
+            if (i + size > length) {
+                throw new IOException("Malformed word in word counts");
+            }
+            for (int k = 1; k < size; k++) {
+                if ((bytes[i + k] & 0xC0) != 0x80) {
+                    throw new IOException("Malformed word in word counts");
+                }
+                cp = (cp << 6) | (bytes[i + k] & 0x3F);
+            }
+            if (cp > Character.MAX_CODE_POINT) {
+                throw new IOException("Malformed word in word counts");
+            }
+            i += size;
+            n += Character.toChars(cp, chars, n);
+        }
+        return n;
+    }
+
+    /**
+     * Writes every word and count of {@code counter} to {@code out}. The
+     * stream is flushed but not closed.
+     *
+     * @param counter
+     *            the counts to write
+     * @param out
+     *            the output stream
+     * @throws IOException
+     *             if writing fails or a word is longer than
+     *             {@code MAX_WORD_BYTES} in UTF-8
+     */
+    public static void write(WordCounter counter, OutputStream out)
+            throws IOException {
+        assert counter != null : "Violation of: counter is not null";
+        assert out != null : "Violation of: out is not null";
+
+        CRC32 crc = new CRC32();
+        DataOutputStream data = new DataOutputStream(
+                new CheckedOutputStream(new BufferedOutputStream(out), crc));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        writeVarint(data, counter.size());
+
+        char[] chars = new char[64];
+        byte[] previous = new byte[3 * chars.length];
+        byte[] current = new byte[3 * chars.length];
+        int previousLength = 0;
+        for (int id : counter.sortedIds()) {
+            int length = counter.wordLength(id);
+            if (length > chars.length) {
+                chars = new char[Math.max(length, 2 * chars.length)];
+                previous = Arrays.copyOf(previous, 3 * chars.length);
+                current = new byte[3 * chars.length];
+            }
+            counter.getWordChars(id, chars, 0);
+            int currentLength = encode(chars, length, current);
+            if (currentLength > MAX_WORD_BYTES) {
+                throw new IOException("Word of " + length
+                        + " characters is too long to save");
+            }
+
+            int shared = 0;
+            int limit = Math.min(previousLength, currentLength);
+            while (shared < limit && previous[shared] == current[shared]) {
+                shared++;
+            }
+            writeVarint(data, shared);
+            writeVarint(data, currentLength - shared);
+            data.write(current, shared, currentLength - shared);
+            writeVarint(data, counter.count(id));
+
+            byte[] t = previous;
+            previous = current;
+            current = t;
+            previousLength = currentLength;
+        }
+
+        //The checksum covers everything written before it
+        data.flush();
+        DataOutputStream trailer = new DataOutputStream(out);
+        trailer.writeInt((int) crc.getValue());
+        trailer.flush();
+    }
+
+    /**
+     * Reads word counts written by {@code write} and adds them to
+     * {@code counter}, so several files can be merged into one counter.
+     *
+     * @param in
+     *            the input stream
+     * @param counter
+     *            receives the counts
+     * @throws IOException
+     *             if reading fails, or the data is not valid or its checksum
+     *             does not match
+     * @updates counter
+     */
+    public static void read(InputStream in, WordCounter counter)
+            throws IOException {
+        assert in != null : "Violation of: in is not null";
+        assert counter != null : "Violation of: counter is not null";
+
+        CRC32 crc = new CRC32();
+        DataInputStream data = new DataInputStream(
+                new CheckedInputStream(in, crc));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a word counts file");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException(
+                    "Unsupported word counts version " + version);
+        }
+
+        //Reads into a scratch counter first so a corrupt file adds nothing;
+        //every length and count is checked before it is used, since the
+        //checksum can only be checked at the end
+        WordCounter loaded = new WordCounter();
+        int words = readVarint(data);
+        if (words < 0) {
+            throw new IOException("Malformed word counts");
+        }
+        byte[] bytes = new byte[256];
+        char[] chars = new char[bytes.length];
+        int previousLength = 0;
+        for (int i = 0; i < words; i++) {
+            int shared = readVarint(data);
+            int suffix = readVarint(data);
+            if (shared > previousLength || suffix < 0
+                    || suffix > MAX_WORD_BYTES - shared) {
+                throw new IOException("Malformed entry in word counts");
+            }
+            int length = shared + suffix;
+            if (length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length,
+                        2 * bytes.length));
+                chars = new char[bytes.length];
+            }
+            data.readFully(bytes, shared, suffix);
+            int count = readVarint(data);
+            if (count < 0) {
+                throw new IOException("Malformed count in word counts");
+            }
+            loaded.add(chars, 0, decode(bytes, length, chars), count);
+            previousLength = length;
+        }
+
+        long expected = crc.getValue();
+        int stored = new DataInputStream(in).readInt();
+        if ((int) expected != stored) {
+            throw new IOException("Word counts checksum mismatch");
+        }
+        counter.addAll(loaded);
+    }
+
+    /**
+     * Saves the counts of {@code counter} to {@code file}, replacing it only
+     * once the new contents are completely written.
+     *
+     * @param counter
+     *            the counts to save
+     * @param file
+     *            the file to write
+     * @throws IOException
+     *             if writing fails
+     */
+    public static void save(WordCounter counter, Path file)
+            throws IOException {
+        assert file != null : "Violation of: file is not null";
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            write(counter, out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds the counts saved in {@code file} to {@code counter}.
+     *
+     * @param file
+     *            the file to read
+     * @param counter
+     *            receives the counts
+     * @throws IOException
+     *             if reading fails or the file is not valid
+     * @updates counter
+     */
+    public static void load(Path file, WordCounter counter)
+            throws IOException {
+        assert file != null : "Violation of: file is not null";
+
+        try (InputStream in = new BufferedInputStream(
+                Files.newInputStream(file))) {
+            read(in, counter);
+        }
+    }
+
+}
@@ -0,0 +1,383 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decides which words are counted: words shorter or longer than given
+ * lengths, words made only of digits and stop words are dropped. A word is
+ * checked as a range of the tokenized array, before any {@code String} is
+ * created for it, so a dropped word costs a few comparisons.
+ *
+ * <p>
+ * Stop words are kept in a perfect hash table built in two levels, as in the
+ * compress, hash and displace (CHD) scheme: a first hash puts each stop word
+ * in a bucket of about {@code BUCKET_SIZE} words, and each bucket, largest
+ * first, gets the first seed that places all of its words in free slots of
+ * the table. The table has at most {@code 5 / 2} slots per stop word, so it
+ * is built in time and space linear in the number of stop words. Looking up
+ * a word hashes it twice and compares it with at most one stop word, and a
+ * bit set of the stop word lengths rejects most words before they are
+ * hashed at all.
+ * </p>
+ *
+ * <p>
+ * A {@code WordFilter} is immutable once constructed and may be shared
+ * between threads.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class WordFilter {
+
+    /**
+     * The filter accepting every word.
+     */
+    public static final WordFilter NONE = new WordFilter(new ArrayList<>(), 1,
+            Integer.MAX_VALUE, false);
+
+    /**
+     * Average number of stop words per bucket.
+     */
+    private static final int BUCKET_SIZE = 4;
+
+    /**
+     * Stop words by slot, or null for an empty slot.
+     */
+    private final char[][] table;
+
+    /**
+     * Seed of the hash placing the stop words of each bucket in slots of
+     * their own, by bucket.
+     */
+    private final int[] seeds;
+
+    /**
+     * Bit {@code l} is set when some stop word has length {@code l}; lengths
+     * of 63 or more share bit 63.
+     */
+    private final long stopLengths;
+
+    /**
+     * Shortest word accepted.
+     */
+    private final int minLength;
+
+    /**
+     * Longest word accepted.
+     */
+    private final int maxLength;
+
+    /**
+     * Whether words made only of digits are dropped.
+     */
+    private final boolean dropNumbers;
+
+    /**
+     * Creates a filter dropping {@code stopWords}, words shorter than
+     * {@code minLength} or longer than {@code maxLength} and, if
+     * {@code dropNumbers}, words made only of digits. Stop words are compared
+     * as they are, so they should already be folded to lowercase.
+     *
+     * @param stopWords
+     *            the words to drop
+     * @param minLength
+     *            the shortest word accepted
+     * @param maxLength
+     *            the longest word accepted
+     * @param dropNumbers
+     *            whether words made only of digits are dropped
+     * @requires 1 <= minLength <= maxLength
+     */
+    public WordFilter(List<String> stopWords, int minLength, int maxLength,
+            boolean dropNumbers) {
+        assert stopWords != null : "Violation of: stopWords is not null";
+        assert 1 <= minLength : "Violation of: 1 <= minLength";
+        assert minLength <= maxLength : "Violation of: minLength <= maxLength";
+
+        char[][] words = stopWords.stream().distinct().map(String::toCharArray)
+                .toArray(char[][]::new);
+        long lengths = 0;
+        for (char[] word : words) {
+            lengths |= lengthBit(word.length);
+        }
+        this.stopLengths = lengths;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.dropNumbers = dropNumbers;
+
+        //Buckets the words by a first hash, then places the largest buckets
+        //first, while the table is emptiest
+        int buckets = Integer.highestOneBit(
+                Math.max(words.length / BUCKET_SIZE, 1));
+        List<List<char[]>> byBucket = new ArrayList<>();
+        for (int b = 0; b < buckets; b++) {
+            byBucket.add(new ArrayList<>());
+        }
+        for (char[] word : words) {
+            byBucket.get(bucket(word, 0, word.length, buckets)).add(word);
+        }
+        Integer[] order = new Integer[buckets];
+        for (int b = 0; b < buckets; b++) {
+            order[b] = b;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(byBucket.get(b).size(),
+                byBucket.get(a).size()));
+
+        //At most 5 / 2 slots per word, and at least 4 / 5 of them free
+        int size = Integer.highestOneBit(Math.max(words.length, 1) * 5 / 4)
+                * 2;
+        char[][] slots = new char[size][];
+        int[] bucketSeeds = new int[buckets];
+        int[] placed = new int[BUCKET_SIZE];
+        for (int b : order) {
+            List<char[]> bucket = byBucket.get(b);
+            if (placed.length < bucket.size()) {
+                placed = new int[bucket.size()];
+            }
+            int seed = 1;
+            while (!place(bucket, slots, seed, placed)) {
+                seed++;
+            }
+            bucketSeeds[b] = seed;
+        }
+        this.table = slots;
+        this.seeds = bucketSeeds;
+    }
+
+    /**
+     * Returns the bit of {@code stopLengths} for words of {@code length}.
+     *
+     * @param length
+     *            the length of a word
+     * @return the bit
+     */
+    private static long lengthBit(int length) {
+        return 1L << Math.min(length, Long.SIZE - 1);
+    }
+
+    /**
+     * Returns the hash of {@code chars[start, end)} with {@code seed}.
+     *
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param seed
+     *            the seed
+     * @return the hash
+     */
+    private static int hash(char[] chars, int start, int end, int seed) {
+        int h = seed * 0x9E3779B9;
+        for (int i = start; i < end; i++) {
+            h = (h ^ chars[i]) * 0x01000193;
+        }
+        //Mixes the high bits into the low bits the slots are picked with
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the bucket, out of {@code buckets}, of {@code chars[start,
+     * end)}.
+     *
+     * @param chars
+     *            the characters
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @param buckets
+     *            the number of buckets; a power of two
+     * @return the bucket
+     */
+    private static int bucket(char[] chars, int start, int end, int buckets) {
+        return hash(chars, start, end, 0) & (buckets - 1);
+    }
+
+    /**
+     * Places the words of {@code bucket} in {@code slots} by their hash with
+     * {@code seed} if each lands in a free slot of its own, and leaves
+     * {@code slots} unchanged otherwise.
+     *
+     * @param bucket
+     *            the stop words of one bucket
+     * @param slots
+     *            the table; its length is a power of two
+     * @param seed
+     *            the seed
+     * @param placed
+     *            scratch space for the slots of the bucket
+     * @return true iff the words were placed
+     * @updates slots
+     * @requires |bucket| <= |placed|
+     */
+    private static boolean place(List<char[]> bucket, char[][] slots,
+            int seed, int[] placed) {
+        int n = 0;
+        boolean free = true;
+        while (free && n < bucket.size()) {
+            char[] word = bucket.get(n);
+            int slot = hash(word, 0, word.length, seed) & (slots.length - 1);
+            free = slots[slot] == null;
+            for (int i = 0; free && i < n; i++) {
+                free = placed[i] != slot;
+            }
+            placed[n] = slot;
+            n++;
+        }
+        if (free) {
+            for (int i = 0; i < n; i++) {
+                slots[placed[i]] = bucket.get(i);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Reads stop words from {@code fileName}: the words of each line,
+     * separated by white space, up to a {@code #} starting a comment. Each
+     * word is folded to lowercase with the case rules of {@code locale}, as
+     * counted words are.
+     *
+     * @param fileName
+     *            the stop word file
+     * @param locale
+     *            the locale whose case rules fold the words
+     * @return the stop words
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public static List<String> readStopWords(String fileName, Locale locale)
+            throws IOException {
+        assert fileName != null : "Violation of: fileName is not null";
+        assert locale != null : "Violation of: locale is not null";
+
+        List<String> words = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(fileName))) {
+            String line = in.readLine();
+            while (line != null) {
+                int comment = line.indexOf('#');
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+                for (String word : line.trim().split("\\s+")) {
+                    if (!word.isEmpty()) {
+                        words.add(word.toLowerCase(locale));
+                    }
+                }
+                line = in.readLine();
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Reports whether {@code chars[start, end)} is a stop word.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @return true iff the word is a stop word
+     * @requires 0 <= start <= end <= |chars|
+     */
+    public boolean isStopWord(char[] chars, int start, int end) {
+        if ((this.stopLengths & lengthBit(end - start)) == 0) {
+            return false;
+        }
+        int seed = this.seeds[bucket(chars, start, end, this.seeds.length)];
+        char[] word = this.table[hash(chars, start, end, seed)
+                & (this.table.length - 1)];
+        return word != null
+                && Arrays.equals(word, 0, word.length, chars, start, end);
+    }
+
+    /**
+     * Reports whether the word {@code chars[start, end)} is counted.
+     *
+     * @param chars
+     *            the characters of the word
+     * @param start
+     *            index of the first character
+     * @param end
+     *            index one past the last character
+     * @return true iff the word passes the filter
+     * @requires 0 <= start <= end <= |chars|
+     */
+    public boolean accepts(char[] chars, int start, int end) {
+        int length = end - start;
+        if (length < this.minLength || length > this.maxLength) {
+            return false;
+        }
+        if (this.dropNumbers) {
+            int i = start;
+            while (i < end && '0' <= chars[i] && chars[i] <= '9') {
+                i++;
+            }
+            if (i == end) {
+                return false;
+            }
+        }
+        return !this.isStopWord(chars, start, end);
+    }
+
+    /**
+     * Returns a sink passing the words this filter accepts on to
+     * {@code target}, or {@code target} itself if every word is accepted.
+     *
+     * @param target
+     *            the sink receiving the accepted words
+     * @return the filtering sink
+     */
+    public WordTokenizer.WordSink sink(WordTokenizer.WordSink target) {
+        assert target != null : "Violation of: target is not null";
+
+        WordTokenizer.WordSink result = target;
+        if (this != NONE) {
+            result = (chars, start, end) -> {
+                if (this.accepts(chars, start, end)) {
+                    target.word(chars, start, end);
+                }
+            };
+        }
+        return result;
+    }
+
+    /**
+     * Returns a sink passing the words this filter accepts on to
+     * {@code target} and the words it drops on to {@code dropped}.
+     *
+     * @param target
+     *            the sink receiving the accepted words
+     * @param dropped
+     *            the sink receiving the dropped words
+     * @return the filtering sink
+     */
+    public WordTokenizer.WordSink sink(WordTokenizer.WordSink target,
+            WordTokenizer.WordSink dropped) {
+        assert target != null : "Violation of: target is not null";
+        assert dropped != null : "Violation of: dropped is not null";
+
+        return (chars, start, end) -> {
+            if (this.accepts(chars, start, end)) {
+                target.word(chars, start, end);
+            } else {
+                dropped.word(chars, start, end);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * Splits text into words using a precomputed separator lookup table. Every
+ * {@code char} value has one bit in the table, so checking whether a character
+ * is a separator is a single array access with no boxing, and each line is
+ * scanned exactly once. Words are reported to a {@code WordSink} as offsets
+ * into the scanned array; separators are skipped without being materialized.
+ *
+ * <p>
+ * A {@code WordTokenizer} is immutable once constructed and may be shared
+ * between threads.
+ * </p>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class WordTokenizer {
+
+    /**
+     * Receives the words found by a {@code WordTokenizer}.
+     */
+    public interface WordSink {
+
+        /**
+         * Accepts the word {@code chars[start, end)}. The array is owned by the
+         * caller and may be reused once this method returns.
+         *
+         * @param chars
+         *            the characters being tokenized
+         * @param start
+         *            index of the first character of the word
+         * @param end
+         *            index one past the last character of the word
+         */
+        void word(char[] chars, int start, int end);
+    }
+
+    /**
+     * Number of {@code long}s needed for one bit per {@code char} value.
+     */
+    private static final int TABLE_LENGTH = (Character.MAX_VALUE + 1) / 64;
+
+    /**
+     * One bit per {@code char} value, set when the character is a separator.
+     */
+    private final long[] separatorBits;
+
+    /**
+     * Creates a tokenizer that splits on the characters of {@code separators}.
+     *
+     * @param separators
+     *            the separator characters
+     */
+    public WordTokenizer(String separators) {
+        assert separators != null : "Violation of: separators is not null";
+
+        this.separatorBits = new long[TABLE_LENGTH];
+        for (int i = 0; i < separators.length(); i++) {
+            char ch = separators.charAt(i);
+            this.separatorBits[ch >>> 6] |= 1L << ch;
+        }
+    }
+
+    /**
+     * Reports whether {@code ch} is a separator.
+     *
+     * @param ch
+     *            the character to test
+     * @return true iff {@code ch} is a separator
+     */
+    public boolean isSeparator(char ch) {
+        return (this.separatorBits[ch >>> 6] & (1L << ch)) != 0;
+    }
+
+    /**
+     * Returns the end of the word or separator string starting at
+     * {@code position}, i.e. the offset of the first character whose class
+     * (word or separator) differs from that of {@code chars[position]}, or
+     * {@code end} if there is none.
+     *
+     * @param chars
+     *            the characters to scan
+     * @param position
+     *            the starting index
+     * @param end
+     *            index one past the last character to scan
+     * @return the end offset of the run starting at {@code position}
+     * @requires 0 <= position < end <= |chars|
+     */
+    public int runEnd(char[] chars, int position, int end) {
+        assert chars != null : "Violation of: chars is not null";
+        assert 0 <= position : "Violation of: 0 <= position";
+        assert position < end : "Violation of: position < end";
+
+        boolean separator = this.isSeparator(chars[position]);
+        int i = position + 1;
+        while (i < end && this.isSeparator(chars[i]) == separator) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Reports every word in {@code chars[start, end)} to {@code sink}, in
+     * order.
+     *
+     * @param chars
+     *            the characters to tokenize
+     * @param start
+     *            index of the first character to tokenize
+     * @param end
+     *            index one past the last character to tokenize
+     * @param sink
+     *            receives each word
+     * @return the number of words reported
+     * @requires 0 <= start <= end <= |chars|
+     */
+    public int tokenize(char[] chars, int start, int end, WordSink sink) {
+        assert chars != null : "Violation of: chars is not null";
+        assert sink != null : "Violation of: sink is not null";
+        assert 0 <= start : "Violation of: 0 <= start";
+        assert start <= end : "Violation of: start <= end";
+        assert end <= chars.length : "Violation of: end <= |chars|";
+
+        int words = 0;
+        int i = start;
+        while (i < end) {
+            //Skips the separator string in front of the next word
+            while (i < end && this.isSeparator(chars[i])) {
+                i++;
+            }
+
+            //Finds the end of the word without copying it
+            int wordStart = i;
+            while (i < end && !this.isSeparator(chars[i])) {
+                i++;
+            }
+
+            if (i > wordStart) {
+                sink.word(chars, wordStart, i);
+                words++;
+            }
+        }
+        return words;
+    }
+
+}
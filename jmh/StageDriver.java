@@ -0,0 +1,146 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import bench.Stages;
+
+/**
+ * Runs the stages of {@code TagCloud10} for {@code bench.StageBenchmark},
+ * which cannot refer to the default package, over the synthetic corpora of
+ * {@code TagCloudBenchmark}.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class StageDriver implements Stages {
+
+    /**
+     * Separators used by {@code TagCloud10}.
+     */
+    private static final String SEPARATORS = " \"\t\n\r,-.!?';:/()*_\\[]{}"
+            + "|<>~=";
+
+    /**
+     * Number of words in the rendered clouds.
+     */
+    private static final int CLOUD_SIZE = 100;
+
+    /**
+     * The whole text.
+     */
+    private String text;
+
+    /**
+     * The lines of the text.
+     */
+    private String[] lines;
+
+    /**
+     * The text as characters.
+     */
+    private char[] chars;
+
+    /**
+     * The counted words of the text.
+     */
+    private WordCounter counter;
+
+    /**
+     * Separator characters, for {@code nextWordOrSeparator}.
+     */
+    private Set<Character> separators;
+
+    /**
+     * The tokenizer of {@code TagCloud10}.
+     */
+    private WordTokenizer tokenizer;
+
+    @Override
+    public void setUp(int vocabulary, int lineWords) throws IOException {
+        this.text = TagCloudBenchmark.synthetic(vocabulary, lineWords);
+        //Splits exactly as readLine does, so every line is read once
+        this.lines = this.text.split("\r\n|\r|\n", -1);
+        this.chars = this.text.toCharArray();
+        this.counter = this.count();
+        this.separators = new HashSet<>();
+        TagCloud10.generateElements(SEPARATORS, this.separators);
+        this.tokenizer = new WordTokenizer(SEPARATORS);
+    }
+
+    /**
+     * Counts the words of the text line by line, as {@code TagCloud10} does.
+     *
+     * @return the counted words
+     * @throws IOException
+     *             never, the text is in memory
+     */
+    private WordCounter count() throws IOException {
+        WordCounter result = new WordCounter();
+        BufferedReader in = new BufferedReader(new StringReader(this.text));
+        TagCloud10.CounterSink sink = new TagCloud10.CounterSink(result);
+        //StringReader is always ready, so reads one line at a time
+        for (int i = 0; i < this.lines.length; i++) {
+            TagCloud10.getWord(in, sink);
+        }
+        return result;
+    }
+
+    @Override
+    public void nextWordOrSeparator(Blackhole blackhole) {
+        for (String line : this.lines) {
+            int position = 0;
+            while (position < line.length()) {
+                String token = TagCloud10.nextWordOrSeparator(line, position,
+                        this.separators);
+                blackhole.consume(token);
+                position += token.length();
+            }
+        }
+    }
+
+    @Override
+    public void tokenize(Blackhole blackhole) {
+        this.tokenizer.tokenize(this.chars, 0, this.chars.length,
+                (word, start, end) -> blackhole.consume(end - start));
+    }
+
+    @Override
+    public Object getWord() throws IOException {
+        return this.count();
+    }
+
+    @Override
+    public int[] select() {
+        return TopWords.select(this.counter, CLOUD_SIZE);
+    }
+
+    @Override
+    public void valueSort(Blackhole blackhole) {
+        PrintWriter out = new PrintWriter(Writer.nullWriter());
+        TagCloud10.valueSort(this.counter, CLOUD_SIZE, out);
+        blackhole.consume(out);
+    }
+
+    @Override
+    public void fontScale(Blackhole blackhole) {
+        int max = this.counter.size();
+        FontScale scale = new FontScale(FontScale.Curve.LINEAR, 1, max);
+        for (int count = 1; count <= max; count++) {
+            blackhole.consume(scale.font(count));
+        }
+    }
+
+    @Override
+    public int render() {
+        CloudRenderer renderer = new CloudRenderer();
+        TagCloud10.render(this.counter, CLOUD_SIZE, "corpus", renderer);
+        return renderer.length();
+    }
+
+}
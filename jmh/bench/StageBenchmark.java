@@ -0,0 +1,152 @@
+package bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks for the stages of {@code TagCloud10}: tokenizing, counting,
+ * selecting and rendering, over the synthetic corpora of
+ * {@code TagCloudBenchmark} for every vocabulary size and line length. Each
+ * benchmark runs in forked JVMs, so one stage's JIT profile does not leak
+ * into another's.
+ *
+ * <pre>
+ * mvn -Pjmh package
+ * java -jar target/benchmarks.jar StageBenchmark
+ * </pre>
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StageBenchmark {
+
+    /**
+     * Number of distinct words of the corpus.
+     */
+    @Param({ "1000", "100000", "1000000" })
+    private int vocabulary;
+
+    /**
+     * Number of words per line of the corpus.
+     */
+    @Param({ "10", "200" })
+    private int lineWords;
+
+    /**
+     * The stages, run on the corpus.
+     */
+    private Stages stages;
+
+    /**
+     * Creates the stages and their corpus.
+     *
+     * @throws IOException
+     *             never, the text is in memory
+     * @throws ReflectiveOperationException
+     *             if the stages cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException, ReflectiveOperationException {
+        //The default package cannot be imported; the driver is created once
+        //by name and then called through the interface
+        this.stages = (Stages) Class.forName("StageDriver")
+                .getDeclaredConstructor().newInstance();
+        this.stages.setUp(this.vocabulary, this.lineWords);
+    }
+
+    /**
+     * Splits the text with the original substring scanner.
+     *
+     * @param blackhole
+     *            receives every token
+     */
+    @Benchmark
+    public void nextWordOrSeparator(Blackhole blackhole) {
+        this.stages.nextWordOrSeparator(blackhole);
+    }
+
+    /**
+     * Splits the text with the lookup-table tokenizer.
+     *
+     * @param blackhole
+     *            receives every word boundary
+     */
+    @Benchmark
+    public void tokenize(Blackhole blackhole) {
+        this.stages.tokenize(blackhole);
+    }
+
+    /**
+     * Counts the words of the text.
+     *
+     * @return the counted words
+     * @throws IOException
+     *             never, the text is in memory
+     */
+    @Benchmark
+    public Object getWord() throws IOException {
+        return this.stages.getWord();
+    }
+
+    /**
+     * Selects the most frequent words.
+     *
+     * @return the selected ids
+     */
+    @Benchmark
+    public int[] select() {
+        return this.stages.select();
+    }
+
+    /**
+     * Selects the most frequent words and writes their tags.
+     *
+     * @param blackhole
+     *            receives the writer
+     */
+    @Benchmark
+    public void valueSort(Blackhole blackhole) {
+        this.stages.valueSort(blackhole);
+    }
+
+    /**
+     * Looks up the font of every count up to the vocabulary size.
+     *
+     * @param blackhole
+     *            receives every font
+     */
+    @Benchmark
+    public void fontScale(Blackhole blackhole) {
+        this.stages.fontScale(blackhole);
+    }
+
+    /**
+     * Selects the most frequent words and renders their page.
+     *
+     * @return the rendered page length
+     */
+    @Benchmark
+    public int render() {
+        return this.stages.render();
+    }
+
+}
@@ -0,0 +1,86 @@
+package bench;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The stages of {@code TagCloud10} run by {@code StageBenchmark}. JMH only
+ * benchmarks classes in a named package, which cannot refer to the classes of
+ * the default package; they are reached through this interface instead,
+ * implemented by {@code StageDriver} in the default package.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public interface Stages {
+
+    /**
+     * Generates the corpus and counts its words.
+     *
+     * @param vocabulary
+     *            number of distinct words of the corpus
+     * @param lineWords
+     *            number of words per line of the corpus
+     * @throws IOException
+     *             never, the text is in memory
+     */
+    void setUp(int vocabulary, int lineWords) throws IOException;
+
+    /**
+     * Splits the text with the original substring scanner.
+     *
+     * @param blackhole
+     *            receives every token
+     */
+    void nextWordOrSeparator(Blackhole blackhole);
+
+    /**
+     * Splits the text with the lookup-table tokenizer.
+     *
+     * @param blackhole
+     *            receives every word boundary
+     */
+    void tokenize(Blackhole blackhole);
+
+    /**
+     * Counts the words of the text line by line, as {@code TagCloud10} does.
+     *
+     * @return the counted words
+     * @throws IOException
+     *             never, the text is in memory
+     */
+    Object getWord() throws IOException;
+
+    /**
+     * Selects the most frequent words.
+     *
+     * @return the selected ids
+     */
+    int[] select();
+
+    /**
+     * Selects the most frequent words and writes their tags.
+     *
+     * @param blackhole
+     *            receives the writer
+     */
+    void valueSort(Blackhole blackhole);
+
+    /**
+     * Looks up the font of every count up to the vocabulary size, building
+     * the scale once as a renderer does.
+     *
+     * @param blackhole
+     *            receives every font
+     */
+    void fontScale(Blackhole blackhole);
+
+    /**
+     * Selects the most frequent words and renders their page.
+     *
+     * @return the rendered page length
+     */
+    int render();
+
+}
@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the font sizes given by {@code FontScale}.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class FontScaleTest {
+
+    /**
+     * The smallest count gets the smallest font, the largest count the
+     * largest, and counts outside the cloud are clamped, on every curve.
+     */
+    @Test
+    public void testEnds() {
+        for (FontScale.Curve curve : FontScale.Curve.values()) {
+            FontScale scale = new FontScale(curve, 3, 1000);
+            assertEquals(FontScale.MIN_FONT, scale.font(3), curve.name());
+            assertEquals(FontScale.MAX_FONT, scale.font(1000), curve.name());
+            assertEquals(FontScale.MIN_FONT, scale.font(0), curve.name());
+            assertEquals(FontScale.MAX_FONT, scale.font(Integer.MAX_VALUE),
+                    curve.name());
+            //Only the smallest count gets the smallest font
+            assertTrue(scale.font(4) > FontScale.MIN_FONT, curve.name());
+        }
+    }
+
+    /**
+     * When every word has the same count, every word gets the largest font.
+     */
+    @Test
+    public void testEqualCounts() {
+        FontScale scale = new FontScale(FontScale.Curve.LINEAR, 7, 7);
+        assertEquals(FontScale.MAX_FONT, scale.font(7));
+        assertEquals(FontScale.MAX_FONT, scale.font(1));
+        assertEquals(FontScale.MAX_FONT,
+                FontScale.compute(FontScale.Curve.LOG, 7, 7, 7));
+    }
+
+    /**
+     * On a linear scale with one count per font step, each count gets its
+     * own font size.
+     */
+    @Test
+    public void testLinearSteps() {
+        int steps = FontScale.MAX_FONT - FontScale.MIN_FONT;
+        FontScale scale = new FontScale(FontScale.Curve.LINEAR, 0, steps);
+        for (int count = 0; count <= steps; count++) {
+            assertEquals(FontScale.MIN_FONT + count, scale.font(count));
+        }
+    }
+
+    /**
+     * The table gives the font computed directly on both sides of every font
+     * boundary, including when there are too many counts to get an entry
+     * each.
+     */
+    @Test
+    public void testTableMatchesComputedFonts() {
+        int[][] ranges = { { 1, 5000 }, { 0, 1 << 20 },
+                { 2, Integer.MAX_VALUE } };
+        for (FontScale.Curve curve : FontScale.Curve.values()) {
+            for (int[] range : ranges) {
+                int min = range[0];
+                int max = range[1];
+                FontScale scale = new FontScale(curve, min, max);
+                for (int font = FontScale.MIN_FONT + 1;
+                        font <= FontScale.MAX_FONT; font++) {
+                    //Finds the smallest count reaching font
+                    int low = min;
+                    int high = max;
+                    while (low < high) {
+                        int middle = low + (high - low) / 2;
+                        if (FontScale.compute(curve, min, max,
+                                middle) >= font) {
+                            high = middle;
+                        } else {
+                            low = middle + 1;
+                        }
+                    }
+                    String where = curve + " " + min + ".." + max + " at "
+                            + low;
+                    assertEquals(FontScale.compute(curve, min, max, low),
+                            scale.font(low), where);
+                    assertEquals(FontScale.compute(curve, min, max, low - 1),
+                            scale.font(low - 1), where);
+                    assertTrue(scale.font(low - 1) < font, where);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the approximate counts of {@code HeavyHitters}.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class HeavyHittersTest {
+
+    /**
+     * Counts {@code word} {@code times} times in {@code hitters}.
+     *
+     * @param hitters
+     *            the counter
+     * @param word
+     *            the word
+     * @param times
+     *            the number of occurrences
+     */
+    private static void add(HeavyHitters hitters, String word, int times) {
+        char[] chars = word.toCharArray();
+        for (int i = 0; i < times; i++) {
+            hitters.add(chars, 0, chars.length);
+        }
+    }
+
+    /**
+     * With room for every word the counts are exact and every word of the
+     * cloud is guaranteed.
+     */
+    @Test
+    public void testExactWhenEveryWordFits() {
+        HeavyHitters hitters = new HeavyHitters(8, 0.01, 0.01);
+        add(hitters, "a", 5);
+        add(hitters, "b", 3);
+        add(hitters, "c", 1);
+        WordCounter estimates = hitters.estimates();
+        assertEquals(5, estimates.count(0));
+        assertEquals(3, estimates.count(1));
+        assertEquals(2, hitters.guaranteed(2));
+    }
+
+    /**
+     * Once words are evicted, a word of the cloud whose count may be too high
+     * is not guaranteed.
+     */
+    @Test
+    public void testEvictedWordsAreNotGuaranteed() {
+        HeavyHitters hitters = new HeavyHitters(2, 0.01, 0.01);
+        add(hitters, "a", 10);
+        add(hitters, "b", 1);
+        add(hitters, "c", 1);
+        add(hitters, "d", 1);
+        //"a" has an exact count of 10, above any other word; the second word
+        //of the cloud replaced others and may be far below its count
+        assertEquals(1, hitters.guaranteed(2));
+        assertEquals(1, hitters.guaranteed(1));
+    }
+
+    /**
+     * A tiny error asked for is capped instead of allocating a sketch of
+     * gigabytes.
+     */
+    @Test
+    public void testTinyEpsilonIsCapped() {
+        HeavyHitters hitters = new HeavyHitters(4, 1e-12, 0.5);
+        add(hitters, "a", 2);
+        assertEquals(2, hitters.estimates().count(0));
+    }
+
+}
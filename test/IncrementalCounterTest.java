@@ -0,0 +1,153 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of {@code IncrementalCounter} run through {@code TagCloud10}.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class IncrementalCounterTest {
+
+    /**
+     * Directory of the files of each test.
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * Returns the counts saved in {@code file}, by word.
+     *
+     * @param file
+     *            the saved counts
+     * @return the counts
+     * @throws IOException
+     *             if reading fails
+     */
+    private static Map<String, Integer> counts(Path file) throws IOException {
+        WordCounter counter = new WordCounter();
+        WordCountsFile.load(file, counter);
+        Map<String, Integer> result = new TreeMap<>();
+        for (int id = 0; id < counter.size(); id++) {
+            result.put(counter.word(id), counter.count(id));
+        }
+        return result;
+    }
+
+    /**
+     * Runs {@code TagCloud10} on {@code input} with {@code snapshot}, adding
+     * the counts of {@code loaded}, and returns the counts it saves.
+     *
+     * @param input
+     *            the input file
+     * @param snapshot
+     *            the snapshot file
+     * @param loaded
+     *            the saved counts to add
+     * @return the counts of the run
+     * @throws IOException
+     *             if reading the saved counts fails
+     */
+    private Map<String, Integer> run(Path input, Path snapshot, Path loaded)
+            throws IOException {
+        Path saved = this.directory.resolve("saved.wc");
+        Files.deleteIfExists(saved);
+        TagCloud10.main(new String[] { "--load", loaded.toString(), "-i",
+                input.toString(), "--snapshot", snapshot.toString(), "--save",
+                saved.toString() });
+        return counts(saved);
+    }
+
+    /**
+     * Writes a file of saved counts holding "apple" once.
+     *
+     * @return the file
+     * @throws IOException
+     *             if writing fails
+     */
+    private Path loadedApple() throws IOException {
+        WordCounter loaded = new WordCounter();
+        loaded.add("apple", 1);
+        Path file = this.directory.resolve("loaded.wc");
+        WordCountsFile.save(loaded, file);
+        return file;
+    }
+
+    /**
+     * Rerunning with {@code --load} and an unchanged input gives the same
+     * counts every time: the loaded counts are not saved in the snapshot.
+     *
+     * @throws IOException
+     *             if a file cannot be written or read
+     */
+    @Test
+    public void testLoadWithSnapshotIsStableAcrossRuns() throws IOException {
+        Path input = this.directory.resolve("input.txt");
+        Files.writeString(input, "apple pear\n", StandardCharsets.UTF_8);
+        Path snapshot = this.directory.resolve("input.snapshot");
+        Path loaded = this.loadedApple();
+
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("apple", 2);
+        expected.put("pear", 1);
+        for (int run = 0; run < 3; run++) {
+            assertEquals(expected, this.run(input, snapshot, loaded));
+        }
+    }
+
+    /**
+     * Appended lines are counted once, on top of the loaded counts.
+     *
+     * @throws IOException
+     *             if a file cannot be written or read
+     */
+    @Test
+    public void testLoadWithSnapshotCountsAppendedLines() throws IOException {
+        Path input = this.directory.resolve("input.txt");
+        Files.writeString(input, "apple pear\n", StandardCharsets.UTF_8);
+        Path snapshot = this.directory.resolve("input.snapshot");
+        Path loaded = this.loadedApple();
+        this.run(input, snapshot, loaded);
+
+        Files.writeString(input, "apple\n", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("apple", 3);
+        expected.put("pear", 1);
+        assertEquals(expected, this.run(input, snapshot, loaded));
+        assertEquals(expected, this.run(input, snapshot, loaded));
+    }
+
+    /**
+     * A snapshot that no longer matches the input is discarded without
+     * losing the loaded counts.
+     *
+     * @throws IOException
+     *             if a file cannot be written or read
+     */
+    @Test
+    public void testRewrittenInputKeepsLoadedCounts() throws IOException {
+        Path input = this.directory.resolve("input.txt");
+        Files.writeString(input, "apple pear\n", StandardCharsets.UTF_8);
+        Path snapshot = this.directory.resolve("input.snapshot");
+        Path loaded = this.loadedApple();
+        this.run(input, snapshot, loaded);
+
+        Files.writeString(input, "plum\n", StandardCharsets.UTF_8);
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("apple", 1);
+        expected.put("plum", 1);
+        assertEquals(expected, this.run(input, snapshot, loaded));
+    }
+
+}
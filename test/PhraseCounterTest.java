@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the phrases counted by {@code PhraseCounter}, run through
+ * {@code TagCloud10}.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class PhraseCounterTest {
+
+    /**
+     * Directory of the files of each test.
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * Renders the bigram cloud of {@code text} with the extra options
+     * {@code options} and returns the page.
+     *
+     * @param text
+     *            the input text
+     * @param options
+     *            the extra options
+     * @return the rendered page
+     * @throws IOException
+     *             if a file cannot be written or read
+     */
+    private String bigrams(String text, String... options) throws IOException {
+        Path input = this.directory.resolve("input.txt");
+        Files.writeString(input, text, StandardCharsets.UTF_8);
+        Path output = this.directory.resolve("cloud.html");
+        List<String> args = new ArrayList<>(List.of("-i", input.toString(),
+                "-o", output.toString(), "-n", "10", "--ngram", "2"));
+        args.addAll(List.of(options));
+        TagCloud10.main(args.toArray(new String[0]));
+        return Files.readString(output, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Phrases are counted across words but not across lines.
+     *
+     * @throws IOException
+     *             if a file cannot be written or read
+     */
+    @Test
+    public void testPhrasesDoNotSpanLines() throws IOException {
+        String page = this.bigrams("out of memory\nout of memory\nagain\n");
+        assertTrue(page.contains("title=\"count: 2\">out of<"), page);
+        assertTrue(page.contains("title=\"count: 2\">of memory<"), page);
+        assertFalse(page.contains(">memory again<"), page);
+        assertFalse(page.contains(">memory out<"), page);
+    }
+
+    /**
+     * A stop word breaks the phrase: the words around it do not make a
+     * phrase of their own.
+     *
+     * @throws IOException
+     *             if a file cannot be written or read
+     */
+    @Test
+    public void testStopWordBreaksPhrase() throws IOException {
+        Path stopWords = this.directory.resolve("stop.txt");
+        Files.writeString(stopWords, "of\n", StandardCharsets.UTF_8);
+        String page = this.bigrams("out of memory error\n", "--stopwords",
+                stopWords.toString());
+        assertFalse(page.contains(">out memory<"), page);
+        assertFalse(page.contains(">out of<"), page);
+        assertTrue(page.contains("title=\"count: 1\">memory error<"), page);
+    }
+
+    /**
+     * A word dropped for its length breaks the phrase too.
+     *
+     * @throws IOException
+     *             if a file cannot be written or read
+     */
+    @Test
+    public void testShortWordBreaksPhrase() throws IOException {
+        String page = this.bigrams("disk is full now\n", "--min-length",
+                "3");
+        assertFalse(page.contains(">disk full<"), page);
+        assertTrue(page.contains("title=\"count: 1\">full now<"), page);
+    }
+
+}
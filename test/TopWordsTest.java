@@ -0,0 +1,83 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the words selected by {@code TopWords}.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class TopWordsTest {
+
+    /**
+     * Returns the words of {@code ids} in {@code counter}.
+     *
+     * @param counter
+     *            the counter the ids belong to
+     * @param ids
+     *            the word ids
+     * @return the words, in the order of {@code ids}
+     */
+    private static String[] words(WordCounter counter, int[] ids) {
+        String[] words = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            words[i] = counter.word(ids[i]);
+        }
+        return words;
+    }
+
+    /**
+     * Words are ranked by descending count, and words with the same count
+     * alphabetically, whatever order they were added in.
+     */
+    @Test
+    public void testTiesAreBrokenAlphabetically() {
+        WordCounter counter = new WordCounter();
+        counter.add("pear", 2);
+        counter.add("fig", 5);
+        counter.add("apple", 2);
+        counter.add("kiwi", 2);
+        counter.add("banana", 1);
+        assertArrayEquals(
+                new String[] { "fig", "apple", "kiwi", "pear", "banana" },
+                words(counter, TopWords.select(counter, 10)));
+        assertTrue(TopWords.ranksAhead(counter, 2, 0));
+        assertFalse(TopWords.ranksAhead(counter, 0, 2));
+    }
+
+    /**
+     * When the last places of the cloud are tied, the words first
+     * alphabetically get them.
+     */
+    @Test
+    public void testTieAtTheCut() {
+        WordCounter counter = new WordCounter();
+        counter.add("zebra", 3);
+        counter.add("yak", 3);
+        counter.add("lion", 9);
+        counter.add("ant", 3);
+        counter.add("cat", 1);
+        assertArrayEquals(new String[] { "lion", "ant", "yak" },
+                words(counter, TopWords.select(counter, 3)));
+    }
+
+    /**
+     * Asking for no words, or for more words than were counted, selects
+     * none or all of them.
+     */
+    @Test
+    public void testSizes() {
+        WordCounter counter = new WordCounter();
+        assertEquals(0, TopWords.select(counter, 5).length);
+        counter.add("a", 1);
+        counter.add("b", 1);
+        assertEquals(0, TopWords.select(counter, 0).length);
+        assertArrayEquals(new String[] { "a", "b" },
+                words(counter, TopWords.select(counter, 5)));
+    }
+
+}
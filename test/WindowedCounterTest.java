@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the timestamps recognized by {@code WindowedCounter}.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class WindowedCounterTest {
+
+    /**
+     * Directory of the files of each test.
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * A thirteen-digit first field is an epoch-milliseconds timestamp.
+     */
+    @Test
+    public void testEpochMillisTimestamp() {
+        WindowedCounter window = new WindowedCounter(60_000, 60);
+        assertEquals(13, window.advance("1700000000000 hello"));
+        assertEquals(1_700_000_000_000L, window.sliceStart());
+    }
+
+    /**
+     * An ISO-8601 date and time, with a space before the time, is a
+     * timestamp.
+     */
+    @Test
+    public void testIsoTimestamp() {
+        WindowedCounter window = new WindowedCounter(60_000, 60);
+        String line = "2023-11-14 22:13:20Z hello";
+        assertEquals(line.indexOf(" hello"), window.advance(line));
+        assertEquals(1_700_000_000_000L, window.sliceStart());
+    }
+
+    /**
+     * A number that is not thirteen digits long is a word, not a timestamp,
+     * and leaves the window where it was.
+     */
+    @Test
+    public void testNumericFirstWordIsNotTimestamp() {
+        WindowedCounter window = new WindowedCounter(60_000, 60);
+        assertEquals(0, window.advance("404 not found"));
+        assertEquals(0, window.advance("2024 budget"));
+        assertEquals(Long.MIN_VALUE, window.sliceStart());
+
+        window.advance("1700000000000 hello");
+        assertEquals(0, window.advance("404 not found"));
+        assertEquals(1_700_000_000_000L, window.sliceStart());
+    }
+
+    /**
+     * A numeric first word is counted in the cloud of the window.
+     *
+     * @throws IOException
+     *             if a file cannot be written or read
+     */
+    @Test
+    public void testNumericFirstWordIsCounted() throws IOException {
+        Path input = this.directory.resolve("input.log");
+        Files.writeString(input,
+                "1700000000000 404 error\n404 not found\n",
+                StandardCharsets.UTF_8);
+        Path output = this.directory.resolve("cloud.html");
+        TagCloud10.main(new String[] { "-i", input.toString(), "-o",
+                output.toString(), "-n", "10", "--window", "1m" });
+
+        String page = Files.readString(output, StandardCharsets.UTF_8);
+        assertTrue(page.contains("title=\"count: 2\">404<"), page);
+        assertTrue(page.contains("title=\"count: 1\">found<"), page);
+    }
+
+}
@@ -0,0 +1,117 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the counts kept by {@code WordCounter}.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class WordCounterTest {
+
+    /**
+     * Returns the count of {@code word} in {@code counter}, or -1 if it has
+     * not been added.
+     *
+     * @param counter
+     *            the counter
+     * @param word
+     *            the word
+     * @return the count, or -1
+     */
+    private static int count(WordCounter counter, String word) {
+        int id = counter.indexOf(word.toCharArray(), 0, word.length());
+        return id < 0 ? -1 : counter.count(id);
+    }
+
+    /**
+     * Words added from inside a larger array are stored by their characters
+     * only, and counted under one id.
+     */
+    @Test
+    public void testAddRange() {
+        WordCounter counter = new WordCounter();
+        char[] chars = "(apple)apple".toCharArray();
+        int first = counter.add(chars, 1, 6);
+        int second = counter.add(chars, 7, 12);
+        assertEquals(first, second);
+        assertEquals(1, counter.size());
+        assertEquals("apple", counter.word(first));
+        assertEquals(2, counter.count(first));
+        assertEquals(-1, count(counter, "appl"));
+    }
+
+    /**
+     * Growing the table many times over keeps every word, its id and its
+     * count.
+     */
+    @Test
+    public void testRehashKeepsEveryWord() {
+        final int n = 50_000;
+        WordCounter counter = new WordCounter();
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, counter.add("w" + i, i % 7 + 1));
+        }
+        for (int i = 0; i < n; i += 2) {
+            counter.add("w" + i, 1);
+        }
+        assertEquals(n, counter.size());
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            int expected = i % 7 + 1 + (i % 2 == 0 ? 1 : 0);
+            int id = counter.indexOf(("w" + i).toCharArray(), 0,
+                    ("w" + i).length());
+            assertEquals(i, id);
+            assertEquals("w" + i, counter.word(id));
+            assertEquals(expected, counter.count(id));
+            total += expected;
+        }
+        assertEquals(total, counter.total());
+    }
+
+    /**
+     * A cleared counter holds no words, and counts words added afterwards
+     * from zero with fresh ids.
+     */
+    @Test
+    public void testClear() {
+        WordCounter counter = new WordCounter();
+        for (int i = 0; i < 2000; i++) {
+            counter.add("w" + i, 3);
+        }
+        counter.clear();
+        assertEquals(0, counter.size());
+        assertEquals(0, counter.total());
+        assertEquals(-1, count(counter, "w0"));
+
+        assertEquals(0, counter.add("w1999", 1));
+        assertEquals(1, counter.add("new", 2));
+        assertEquals(1, count(counter, "w1999"));
+        assertEquals(2, count(counter, "new"));
+        assertEquals(-1, count(counter, "w0"));
+        assertEquals(3, counter.total());
+    }
+
+    /**
+     * Negative deltas lower a count and the total; a word whose count drops
+     * to zero keeps its id.
+     */
+    @Test
+    public void testNegativeDeltas() {
+        WordCounter counter = new WordCounter();
+        int id = counter.add("apple", 5);
+        counter.add("pear", 2);
+        assertEquals(id, counter.add("apple", -3));
+        assertEquals(2, count(counter, "apple"));
+        assertEquals(4, counter.total());
+
+        counter.add("apple", -2);
+        assertEquals(0, count(counter, "apple"));
+        assertEquals(2, counter.size());
+        assertEquals(2, counter.total());
+        assertEquals(id, counter.add("apple", 1));
+        assertEquals(1, count(counter, "apple"));
+    }
+
+}
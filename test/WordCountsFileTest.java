@@ -0,0 +1,166 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the word counts files read and written by
+ * {@code WordCountsFile}, including corrupt ones.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class WordCountsFileTest {
+
+    /**
+     * Returns {@code body}, the contents of a word counts file after its
+     * magic number and version, as a whole file with a valid checksum.
+     *
+     * @param body
+     *            the entry count and entries
+     * @return the file contents
+     */
+    private static byte[] file(int... body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[] { 'T', 'C', 'W', 'C', 1 });
+        for (int b : body) {
+            out.write(b);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(out.toByteArray());
+        int value = (int) crc.getValue();
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(value >>> shift);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads {@code bytes} into a new counter.
+     *
+     * @param bytes
+     *            the file contents
+     * @return the counter
+     * @throws IOException
+     *             if the contents are not valid
+     */
+    private static WordCounter read(byte[] bytes) throws IOException {
+        WordCounter counter = new WordCounter();
+        WordCountsFile.read(new ByteArrayInputStream(bytes), counter);
+        return counter;
+    }
+
+    /**
+     * Written counts are read back exactly, including words that share a
+     * prefix and words outside ASCII.
+     *
+     * @throws IOException
+     *             never
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        WordCounter counter = new WordCounter();
+        counter.add("apple", 3);
+        counter.add("applesauce", 1);
+        counter.add("caf\u00e9", 2);
+        counter.add("\uD83D\uDE00", Integer.MAX_VALUE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WordCountsFile.write(counter, out);
+
+        WordCounter loaded = read(out.toByteArray());
+        assertEquals(4, loaded.size());
+        assertEquals(3, loaded.count(loaded.indexOf("apple".toCharArray(),
+                0, "apple".length())));
+        char[] cafe = "caf\u00e9".toCharArray();
+        assertEquals(2, loaded.count(loaded.indexOf(cafe, 0, cafe.length)));
+        char[] emoji = "\uD83D\uDE00".toCharArray();
+        assertEquals(Integer.MAX_VALUE,
+                loaded.count(loaded.indexOf(emoji, 0, emoji.length)));
+    }
+
+    /**
+     * A file cut short anywhere is rejected and adds nothing.
+     *
+     * @throws IOException
+     *             never
+     */
+    @Test
+    public void testTruncatedFile() throws IOException {
+        WordCounter counter = new WordCounter();
+        counter.add("apple", 3);
+        counter.add("pear", 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WordCountsFile.write(counter, out);
+        byte[] bytes = out.toByteArray();
+
+        for (int length = 0; length < bytes.length; length++) {
+            WordCounter target = new WordCounter();
+            byte[] cut = Arrays.copyOf(bytes, length);
+            assertThrows(IOException.class, () -> WordCountsFile
+                    .read(new ByteArrayInputStream(cut), target));
+            assertEquals(0, target.size());
+        }
+    }
+
+    /**
+     * A changed byte is caught by the checksum.
+     *
+     * @throws IOException
+     *             never
+     */
+    @Test
+    public void testChecksumMismatch() throws IOException {
+        byte[] bytes = file(1, 0, 1, 'a', 1);
+        bytes[bytes.length - 6] = 'b';
+        IOException e = assertThrows(IOException.class, () -> read(bytes));
+        assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+    }
+
+    /**
+     * A huge word length is rejected before a buffer is allocated for it.
+     */
+    @Test
+    public void testHugeWordLength() {
+        IOException e = assertThrows(IOException.class,
+                () -> read(file(1, 0, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 'a', 1)));
+        assertTrue(e.getMessage().startsWith("Malformed"), e.getMessage());
+    }
+
+    /**
+     * Bytes that are not UTF-8, or encode a code point past Unicode, are
+     * rejected with an {@code IOException}.
+     */
+    @Test
+    public void testMalformedUtf8() {
+        assertThrows(IOException.class,
+                () -> read(file(1, 0, 4, 0xF7, 0xBF, 0xBF, 0xBF, 1)));
+        assertThrows(IOException.class,
+                () -> read(file(1, 0, 2, 0xC3, 'a', 1)));
+        assertThrows(IOException.class, () -> read(file(1, 0, 1, 0xFF, 1)));
+    }
+
+    /**
+     * A count or entry count that overflows an {@code int} is rejected.
+     */
+    @Test
+    public void testOverflowingVarint() {
+        IOException count = assertThrows(IOException.class,
+                () -> read(file(1, 0, 1, 'a', 0xFF, 0xFF, 0xFF, 0xFF, 0x0F)));
+        assertTrue(count.getMessage().startsWith("Malformed"),
+                count.getMessage());
+        IOException words = assertThrows(IOException.class,
+                () -> read(file(0xFF, 0xFF, 0xFF, 0xFF, 0x0F)));
+        assertTrue(words.getMessage().startsWith("Malformed"),
+                words.getMessage());
+        assertThrows(IOException.class,
+                () -> read(file(1, 0, 1, 'a', 0xFF, 0xFF, 0xFF, 0xFF, 0x1F)));
+    }
+
+}
@@ -0,0 +1,80 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the stop words, lengths and numbers dropped by {@code WordFilter}.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class WordFilterTest {
+
+    /**
+     * Reports whether {@code filter} accepts {@code word}.
+     *
+     * @param filter
+     *            the filter
+     * @param word
+     *            the word
+     * @return true iff the word passes the filter
+     */
+    private static boolean accepts(WordFilter filter, String word) {
+        char[] chars = ("(" + word + ")").toCharArray();
+        return filter.accepts(chars, 1, chars.length - 1);
+    }
+
+    /**
+     * Stop words, words outside the lengths and numbers are dropped; other
+     * words are kept.
+     */
+    @Test
+    public void testDropsStopWordsLengthsAndNumbers() {
+        WordFilter filter = new WordFilter(List.of("the", "of", "and", "the"),
+                2, 8, true);
+        assertFalse(accepts(filter, "the"));
+        assertFalse(accepts(filter, "of"));
+        assertFalse(accepts(filter, "a"));
+        assertFalse(accepts(filter, "memorandum"));
+        assertFalse(accepts(filter, "2024"));
+        assertTrue(accepts(filter, "then"));
+        assertTrue(accepts(filter, "out"));
+        assertTrue(accepts(filter, "b2"));
+    }
+
+    /**
+     * The filter accepting every word drops nothing.
+     */
+    @Test
+    public void testNoneAcceptsEverything() {
+        assertTrue(accepts(WordFilter.NONE, "the"));
+        assertTrue(accepts(WordFilter.NONE, "2024"));
+    }
+
+    /**
+     * A large stop word list is built quickly, and every stop word, and no
+     * other word, is dropped.
+     */
+    @Test
+    public void testLargeStopWordList() {
+        final int n = 200_000;
+        List<String> stopWords = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            stopWords.add("stop" + i);
+        }
+        WordFilter filter = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> new WordFilter(stopWords, 1, Integer.MAX_VALUE, false));
+        for (int i = 0; i < n; i++) {
+            assertFalse(accepts(filter, "stop" + i), "stop" + i);
+            assertTrue(accepts(filter, "kept" + i), "kept" + i);
+        }
+        assertTrue(accepts(filter, "stop" + n));
+    }
+
+}
@@ -0,0 +1,133 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the words found by {@code WordTokenizer}, against those found by
+ * the original {@code TagCloud10.nextWordOrSeparator} scan.
+ *
+ * @author jaleel.5, mccarthy.621 & Zhang.11341
+ *
+ */
+public final class WordTokenizerTest {
+
+    /**
+     * The archive of the original project, which holds the sample input.
+     */
+    private static final String ARCHIVE = "TagCloudGenrator.zip";
+
+    /**
+     * The sample input inside {@code ARCHIVE}.
+     */
+    private static final String SAMPLE =
+            "TagCloudGenerator/data/importance.txt";
+
+    /**
+     * Restores the default separators and filter, which other tests may
+     * have changed through {@code TagCloud10.main}.
+     *
+     * @throws IOException
+     *             never
+     */
+    @BeforeEach
+    public void defaultWords() throws IOException {
+        TagCloud10.configureWords(TagCloudOptions.parse(new String[0]));
+    }
+
+    /**
+     * Returns the text of the sample input.
+     *
+     * @return the text
+     * @throws IOException
+     *             if the archive cannot be read
+     */
+    private static String sample() throws IOException {
+        try (ZipFile zip = new ZipFile(ARCHIVE);
+                InputStream in = zip.getInputStream(zip.getEntry(SAMPLE))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Returns the words {@code tokenizer} finds in {@code text}.
+     *
+     * @param tokenizer
+     *            the tokenizer
+     * @param text
+     *            the text
+     * @return the words, in order
+     */
+    private static List<String> words(WordTokenizer tokenizer, String text) {
+        List<String> words = new ArrayList<>();
+        char[] chars = text.toCharArray();
+        tokenizer.tokenize(chars, 0, chars.length, (c, start, end) -> words
+                .add(new String(c, start, end - start)));
+        return words;
+    }
+
+    /**
+     * Words are the runs between separators; leading, trailing and repeated
+     * separators make no empty words.
+     */
+    @Test
+    public void testWords() {
+        WordTokenizer tokenizer = new WordTokenizer(" ,.");
+        assertEquals(List.of("out", "of", "memory"),
+                words(tokenizer, "  out, of..memory. "));
+        assertEquals(List.of(), words(tokenizer, ",. "));
+        assertEquals(List.of("caf\u00e9"),
+                words(tokenizer, "caf\u00e9"));
+        assertTrue(tokenizer.isSeparator(','));
+        assertFalse(tokenizer.isSeparator('\u00e9'));
+    }
+
+    /**
+     * Every line of the sample input gives the same words and counts as the
+     * original scan with {@code nextWordOrSeparator}.
+     *
+     * @throws IOException
+     *             if the sample input cannot be read
+     */
+    @Test
+    public void testSameWordsAsSeparatorScan() throws IOException {
+        SortedMap<String, Integer> expected = new TreeMap<>();
+        SortedMap<String, Integer> actual = new TreeMap<>();
+        WordCounter counter = new WordCounter();
+        for (String line : sample().split("\r?\n", -1)) {
+            SortedMap<String, Integer> lineExpected = new TreeMap<>();
+            SortedMap<String, Integer> lineActual = new TreeMap<>();
+            TagCloud10.getWordBySeparatorScan(
+                    new BufferedReader(new StringReader(line)), lineExpected);
+            TagCloud10.getWord(new BufferedReader(new StringReader(line)),
+                    lineActual);
+            TagCloud10.getWord(new BufferedReader(new StringReader(line)),
+                    counter);
+            assertEquals(lineExpected, lineActual, line);
+            lineExpected.forEach((w, n) -> expected.merge(w, n, Integer::sum));
+            lineActual.forEach((w, n) -> actual.merge(w, n, Integer::sum));
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+
+        SortedMap<String, Integer> counted = new TreeMap<>();
+        for (int id = 0; id < counter.size(); id++) {
+            counted.put(counter.word(id), counter.count(id));
+        }
+        assertEquals(expected, counted);
+    }
+
+}